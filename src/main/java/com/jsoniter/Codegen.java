@@ -6,6 +6,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
@@ -236,6 +237,14 @@ class Codegen {
         if (classInfo.clazz.isEnum()) {
             return CodegenImplEnum.genEnum(classInfo);
         }
+        if (Modifier.isAbstract(classInfo.clazz.getModifiers())) {
+            StringBuilder lines = new StringBuilder();
+            if (CodegenImplObjectHash.appendTypeDispatch(lines, classInfo.clazz)) {
+                lines.append("throw iter.reportError(\"decode_\", \"expect type annotation of a subclass of ")
+                        .append(classInfo.clazz.getCanonicalName()).append("\");\n");
+                return lines.toString();
+            }
+        }
         ClassDescriptor desc = ClassDescriptor.getDecodingClassDescriptor(classInfo, false);
         if (shouldUseStrictMode(mode, desc)) {
             return CodegenImplObjectStrict.genObjectUsingStrict(desc);
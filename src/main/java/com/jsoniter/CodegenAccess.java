@@ -87,6 +87,46 @@ public class CodegenAccess {
         return (T) Codegen.getDecoder(cacheKey, null).decode(iter);
     }
 
+    public static final Object readValidated(String typeName, JsonIterator iter) throws IOException {
+        return CodegenImplSchema.readValidated(typeName, iter);
+    }
+
+    public static final Object readBuiltIn(TysonType type, ValueType valueType, JsonIterator iter) throws IOException {
+        return CodegenImplSchema.readBuiltIn(type, valueType, iter);
+    }
+
+    public static final Object readBuiltInValidated(TysonType type, JsonIterator iter) throws IOException {
+        return CodegenImplSchema.readBuiltIn(type, CodegenImplSchema.readValidatedStart(type, iter), iter);
+    }
+
+    public static final ValueType readValidatedStart(TysonType type, JsonIterator iter) throws IOException {
+        return CodegenImplSchema.readValidatedStart(type, iter);
+    }
+
+    public static final boolean nextValidatedField(JsonIterator iter) throws IOException {
+        return CodegenImplSchema.nextField(iter);
+    }
+
+    public static final int fieldHash(Slice field) {
+        return CodegenImplSchema.fieldHash(field);
+    }
+
+    // consume the type annotation if any, the id is used to dispatch to the decoder of a subclass
+    // the type annotation before the value, null if there is none
+    public static TysonType readTypeAnnotation(JsonIterator iter) throws IOException {
+        byte c = IterImpl.nextToken(iter);
+        iter.unreadByte();
+        if (c != '(') {
+            return null;
+        }
+        return iter.readTysonType();
+    }
+
+    // the hash of the type name, the same as CodegenImplObjectHash.calcHash(type.name())
+    public static int typeNameHash(TysonType type) {
+        return type.hash;
+    }
+
     public static boolean readArrayStart(JsonIterator iter) throws IOException {
         byte c = IterImpl.nextToken(iter);
         if (c == '[') {
@@ -113,6 +153,29 @@ public class CodegenAccess {
         throw iter.reportError("readObjectStart", "expect { or n, found: " + (char) c);
     }
 
+    // a value of another type where a projection expects an object or array is skipped, its paths are absent
+    public static boolean readProjectedObjectStart(JsonIterator iter) throws IOException {
+        ValueType valueType = iter.whatIsNext();
+        if (valueType != ValueType.OBJECT && valueType != ValueType.USERDEFINEDOBJECT) {
+            iter.skip();
+            return false;
+        }
+        return readObjectStart(iter);
+    }
+
+    public static boolean readProjectedArrayStart(JsonIterator iter) throws IOException {
+        ValueType valueType = iter.whatIsNext();
+        if (valueType != ValueType.ARRAY && valueType != ValueType.USERDEFINEDARRAY) {
+            iter.skip();
+            return false;
+        }
+        return readArrayStart(iter);
+    }
+
+    public static void readProjected(JsonIterator iter, ProjectionRow row, int slot) throws IOException {
+        row.read(iter, slot);
+    }
+
     public static void reportIncompleteObject(JsonIterator iter) {
         throw iter.reportError("genObject", "expect }");
     }
@@ -174,6 +237,10 @@ public class CodegenAccess {
         return iter.head;
     }
 
+    public static int tail(JsonIterator iter) {
+        return iter.tail;
+    }
+
     public static void unreadByte(JsonIterator iter) throws IOException {
         iter.unreadByte();
     }
@@ -10,6 +10,7 @@ class CodegenImplObjectHash {
     public static String genObjectUsingHash(ClassDescriptor desc) {
         Class clazz = desc.clazz;
         StringBuilder lines = new StringBuilder();
+        appendTypeDispatch(lines, clazz);
         // === if null, return null
         append(lines, "java.lang.Object existingObj = com.jsoniter.CodegenAccess.resetExistingObject(iter);");
         append(lines, "byte nextToken = com.jsoniter.CodegenAccess.readByte(iter);");
@@ -180,6 +181,54 @@ class CodegenImplObjectHash {
         code.append(")");
     }
 
+    // subclasses mapped by Config.typeNames(), keyed by the type name
+    static Map<String, Class> getMappedSubclasses(Class clazz) {
+        Map<String, Class> subclasses = new LinkedHashMap<String, Class>();
+        for (Map.Entry<String, Class> entry : JsoniterSpi.getCurrentConfig().typeNames().entrySet()) {
+            Class subclass = entry.getValue();
+            if (subclass != clazz && clazz.isAssignableFrom(subclass)) {
+                subclasses.put(entry.getKey(), subclass);
+            }
+        }
+        return subclasses;
+    }
+
+    // the switch jumps on the hash of the annotated name, then the name is compared.
+    // ids of the registry depend on the order types are first seen, the generated source must not
+    static boolean appendTypeDispatch(StringBuilder lines, Class clazz) {
+        Map<String, Class> subclasses = getMappedSubclasses(clazz);
+        if (subclasses.isEmpty()) {
+            return false;
+        }
+        Map<Integer, List<String>> names = new TreeMap<Integer, List<String>>();
+        for (String name : subclasses.keySet()) {
+            List<String> sameHash = names.get(calcHash(name));
+            if (sameHash == null) {
+                sameHash = new ArrayList<String>();
+                names.put(calcHash(name), sameHash);
+            }
+            sameHash.add(name);
+        }
+        append(lines, "com.jsoniter.TysonType typeAnnotation = com.jsoniter.CodegenAccess.readTypeAnnotation(iter);");
+        append(lines, "if (typeAnnotation != null) {");
+        append(lines, "switch (com.jsoniter.CodegenAccess.typeNameHash(typeAnnotation)) {");
+        for (Map.Entry<Integer, List<String>> entry : names.entrySet()) {
+            append(lines, "case " + entry.getKey() + ": ");
+            for (String name : entry.getValue()) {
+                append(lines, String.format("if (typeAnnotation.name().equals(\"%s\")) { return %s; }",
+                        escape(name), CodegenImplNative.genReadOp(subclasses.get(name))));
+            }
+            append(lines, "break;");
+        }
+        append(lines, "}");
+        append(lines, "}");
+        return true;
+    }
+
+    private static String escape(String name) {
+        return name.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
     static void append(StringBuilder lines, String str) {
         lines.append(str);
         lines.append("\n");
@@ -5,6 +5,7 @@ import com.jsoniter.spi.*;
 import java.lang.reflect.Method;
 import java.util.*;
 
+import static com.jsoniter.CodegenImplObjectHash.appendTypeDispatch;
 import static com.jsoniter.CodegenImplObjectHash.appendVarDef;
 import static com.jsoniter.CodegenImplObjectHash.appendWrappers;
 
@@ -28,6 +29,7 @@ class CodegenImplObjectStrict {
         long expectedTracker = Long.MAX_VALUE >> (63 - lastRequiredIdx);
         Map<Integer, Object> trieTree = buildTriTree(allBindings);
         StringBuilder lines = new StringBuilder();
+        appendTypeDispatch(lines, desc.clazz);
         /*
          * only strict mode binding support missing/extra properties tracking
          * 1. if null, return null
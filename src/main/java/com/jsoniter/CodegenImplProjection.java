@@ -0,0 +1,223 @@
+package com.jsoniter;
+
+import com.jsoniter.spi.DecodingMode;
+import com.jsoniter.spi.Decoder;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.JsoniterSpi;
+
+import java.util.*;
+
+class CodegenImplProjection {
+
+    private static int generatedCount;
+    private static final Map<String, Projection> projections = new HashMap<String, Projection>();
+
+    // paths sharing a prefix share the code reading it: each object or array on the way is visited once
+    private static class Node {
+        int slot = -1;
+        final Map<String, Node> fields = new LinkedHashMap<String, Node>();
+        final Map<Integer, Node> elements = new TreeMap<Integer, Node>();
+    }
+
+    static synchronized Projection getProjection(String[] paths) {
+        if (paths.length == 0) {
+            throw new JsonException("projection needs at least one path");
+        }
+        boolean strict = JsoniterSpi.getCurrentConfig().decodingMode() == DecodingMode.DYNAMIC_MODE_AND_MATCH_FIELD_STRICTLY;
+        StringBuilder key = new StringBuilder(strict ? "strict" : "hash");
+        for (String path : paths) {
+            key.append(' ').append(path.length()).append(':').append(path);
+        }
+        Projection projection = projections.get(key.toString());
+        if (projection != null) {
+            return projection;
+        }
+        Node root = new Node();
+        for (int slot = 0; slot < paths.length; slot++) {
+            addPath(root, paths[slot], slot);
+        }
+        String cacheKey = "jsoniter_codegen.projection.Projection_" + (++generatedCount);
+        String source = "public static java.lang.Object decode_(com.jsoniter.JsonIterator iter) throws java.io.IOException { "
+                + genSource(root, strict) + "}";
+        if ("true".equals(System.getenv("JSONITER_DEBUG"))) {
+            System.out.println(">>> " + cacheKey);
+            System.out.println(source);
+        }
+        Decoder decoder;
+        try {
+            decoder = DynamicCodegen.gen(cacheKey, source);
+        } catch (Exception e) {
+            throw new JsonException("failed to generate projection for: " + Arrays.toString(paths) + ", exception: " + e + "\n" + source, e);
+        }
+        projection = new Projection(paths, decoder);
+        projections.put(key.toString(), projection);
+        return projection;
+    }
+
+    // $ followed by .name, ['name'] or [index]
+    private static void addPath(Node root, String path, int slot) {
+        if (!path.startsWith("$")) {
+            throw new JsonException("projection path must start with $: " + path);
+        }
+        Node node = root;
+        int i = 1;
+        while (i < path.length()) {
+            if (node.slot != -1) {
+                throw new JsonException("projection path " + path + " is inside another path");
+            }
+            char c = path.charAt(i);
+            if (c == '.') {
+                int end = i + 1;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                if (end == i + 1) {
+                    throw new JsonException("expect field name at " + i + " of projection path " + path);
+                }
+                node = field(node, path.substring(i + 1, end), path);
+                i = end;
+            } else if (c == '[' && i + 1 < path.length() && (path.charAt(i + 1) == '\'' || path.charAt(i + 1) == '"')) {
+                int end = path.indexOf(path.charAt(i + 1), i + 2);
+                if (end == -1 || end + 1 >= path.length() || path.charAt(end + 1) != ']') {
+                    throw new JsonException("expect quoted field name at " + i + " of projection path " + path);
+                }
+                node = field(node, path.substring(i + 2, end), path);
+                i = end + 2;
+            } else if (c == '[') {
+                int end = path.indexOf(']', i);
+                int index;
+                try {
+                    index = end == -1 ? -1 : Integer.parseInt(path.substring(i + 1, end));
+                } catch (NumberFormatException e) {
+                    index = -1;
+                }
+                if (index < 0) {
+                    throw new JsonException("expect array index at " + i + " of projection path " + path);
+                }
+                node = element(node, index, path);
+                i = end + 1;
+            } else {
+                throw new JsonException("unexpected " + c + " at " + i + " of projection path " + path);
+            }
+        }
+        if (node.slot != -1) {
+            throw new JsonException("duplicated projection path " + path);
+        }
+        if (!node.fields.isEmpty() || !node.elements.isEmpty()) {
+            throw new JsonException("projection path " + path + " contains another path");
+        }
+        node.slot = slot;
+    }
+
+    private static Node field(Node node, String name, String path) {
+        if (!node.elements.isEmpty()) {
+            throw new JsonException("projection path " + path + " expects an object where another path expects an array");
+        }
+        Node child = node.fields.get(name);
+        if (child == null) {
+            child = new Node();
+            node.fields.put(name, child);
+        }
+        return child;
+    }
+
+    private static Node element(Node node, int index, String path) {
+        if (!node.fields.isEmpty()) {
+            throw new JsonException("projection path " + path + " expects an array where another path expects an object");
+        }
+        Node child = node.elements.get(index);
+        if (child == null) {
+            child = new Node();
+            node.elements.put(index, child);
+        }
+        return child;
+    }
+
+    private static String genSource(Node root, boolean strict) {
+        StringBuilder lines = new StringBuilder();
+        append(lines, "com.jsoniter.ProjectionRow row = (com.jsoniter.ProjectionRow) com.jsoniter.CodegenAccess.resetExistingObject(iter);");
+        append(lines, "row.clear();");
+        genNode(lines, root, strict, new int[1]);
+        append(lines, "return row;");
+        return lines.toString();
+    }
+
+    private static void genNode(StringBuilder lines, Node node, boolean strict, int[] counter) {
+        if (node.slot != -1) {
+            append(lines, String.format("com.jsoniter.CodegenAccess.readProjected(iter, row, %d);", node.slot));
+        } else if (!node.elements.isEmpty()) {
+            genArray(lines, node, strict, counter);
+        } else if (strict || hasHashCollision(node)) {
+            genObjectMatchingStrictly(lines, node, strict, counter);
+        } else {
+            genObjectMatchingHash(lines, node, strict, counter);
+        }
+    }
+
+    private static boolean hasHashCollision(Node node) {
+        Set<Integer> hashes = new HashSet<Integer>();
+        for (String field : node.fields.keySet()) {
+            if (!hashes.add(CodegenImplObjectHash.calcHash(field))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void genObjectMatchingHash(StringBuilder lines, Node node, boolean strict, int[] counter) {
+        append(lines, "if (com.jsoniter.CodegenAccess.readProjectedObjectStart(iter)) {");
+        append(lines, "do {");
+        append(lines, "switch (com.jsoniter.CodegenAccess.readObjectFieldAsHash(iter)) {");
+        for (Map.Entry<String, Node> field : node.fields.entrySet()) {
+            append(lines, "case " + CodegenImplObjectHash.calcHash(field.getKey()) + ":");
+            genNode(lines, field.getValue(), strict, counter);
+            append(lines, "continue;");
+        }
+        append(lines, "}");
+        append(lines, "iter.skip();");
+        append(lines, "} while (com.jsoniter.CodegenAccess.nextTokenIsComma(iter));");
+        append(lines, "}");
+    }
+
+    private static void genObjectMatchingStrictly(StringBuilder lines, Node node, boolean strict, int[] counter) {
+        String field = "field" + (counter[0]++);
+        append(lines, "if (com.jsoniter.CodegenAccess.readProjectedObjectStart(iter)) {");
+        append(lines, "do {");
+        append(lines, String.format("java.lang.String %s = com.jsoniter.CodegenAccess.readObjectFieldAsString(iter);", field));
+        for (Map.Entry<String, Node> entry : node.fields.entrySet()) {
+            append(lines, String.format("if (%s.equals(%s)) {", field, quote(entry.getKey())));
+            genNode(lines, entry.getValue(), strict, counter);
+            append(lines, "continue;");
+            append(lines, "}");
+        }
+        append(lines, "iter.skip();");
+        append(lines, "} while (com.jsoniter.CodegenAccess.nextTokenIsComma(iter));");
+        append(lines, "}");
+    }
+
+    private static void genArray(StringBuilder lines, Node node, boolean strict, int[] counter) {
+        String index = "index" + (counter[0]++);
+        append(lines, "if (com.jsoniter.CodegenAccess.readProjectedArrayStart(iter)) {");
+        append(lines, String.format("int %s = 0;", index));
+        append(lines, "do {");
+        append(lines, String.format("switch (%s++) {", index));
+        for (Map.Entry<Integer, Node> element : node.elements.entrySet()) {
+            append(lines, "case " + element.getKey() + ":");
+            genNode(lines, element.getValue(), strict, counter);
+            append(lines, "continue;");
+        }
+        append(lines, "}");
+        append(lines, "iter.skip();");
+        append(lines, "} while (com.jsoniter.CodegenAccess.nextTokenIsComma(iter));");
+        append(lines, "}");
+    }
+
+    private static String quote(String str) {
+        return '"' + str.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private static void append(StringBuilder lines, String str) {
+        lines.append(str);
+        lines.append("\n");
+    }
+}
@@ -0,0 +1,428 @@
+package com.jsoniter;
+
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.SchemaRegistry;
+import com.jsoniter.spi.Slice;
+import com.jsoniter.spi.TypeDefinition;
+import com.jsoniter.spi.Validator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// the validator of a type reads the annotation, the fields and the members without looking anything up:
+// types, field names, bounds and the validators of the types it refers to are static fields of the generated class,
+// set once it is loaded. a type and the types it refers to are generated together, so cycles link to each other
+class CodegenImplSchema {
+
+    private static final BigDecimal MIN_LONG = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+    private static int generatedCount;
+
+    static Object readValidated(String typeName, JsonIterator iter) throws IOException {
+        TysonType type = TypeNameRegistry.lookup(typeName);
+        if (type.isBuiltIn()) {
+            return readBuiltIn(type, readValidatedStart(type, iter), iter);
+        }
+        return getValidator(typeName, iter).validate(iter, true);
+    }
+
+    static void skipValidated(String typeName, JsonIterator iter) throws IOException {
+        TysonType type = TypeNameRegistry.lookup(typeName);
+        if (type.isBuiltIn()) {
+            readBuiltIn(type, readValidatedStart(type, iter), iter);
+        } else {
+            getValidator(typeName, iter).validate(iter, false);
+        }
+    }
+
+    // consume the annotation if any, it must be the expected type. the value type behind it is returned
+    static ValueType readValidatedStart(TysonType type, JsonIterator iter) throws IOException {
+        ValueType valueType = iter.whatIsNext();
+        if (iter.typeAnnotatedValueAt != iter.head) {
+            return valueType;
+        }
+        TysonType annotated = iter.lastTysonType();
+        // types beyond the capacity of the registry have no id
+        boolean same = annotated.id() == -1 ? annotated.name().equals(type.name()) : annotated.id() == type.id();
+        if (!same) {
+            throw iter.reportError("readValidated", "expect " + type + ", found " + annotated);
+        }
+        // behind a user-defined annotation, the plain value type
+        return type.isBuiltIn() ? valueType : iter.whatIsNext();
+    }
+
+    static Object readBuiltIn(TysonType type, ValueType valueType, JsonIterator iter) throws IOException {
+        if (type.valueType() != valueType) {
+            throw iter.reportError("readValidated", "expect " + type + ", found " + valueType);
+        }
+        switch (valueType) {
+            case STRING:
+                return iter.readString();
+            case NUMBER:
+                TysonType numberType = iter.numberType();
+                if (!JsonIterator.admitsNumber(type, numberType)) {
+                    throw iter.reportError("readValidated", "expect " + type + ", found " + numberType);
+                }
+                if (type == TysonType.DECIMAL) {
+                    return iter.readBigDecimal();
+                }
+                if (type == TysonType.DOUBLE) {
+                    return iter.readDouble();
+                }
+                return iter.read();
+            case BOOLEAN:
+                return iter.readBoolean();
+            case NULL:
+                iter.readNull();
+                return null;
+            default:
+                return iter.read();
+        }
+    }
+
+    // after a field value: true if another field follows, false at the end of the object
+    static boolean nextField(JsonIterator iter) throws IOException {
+        byte c = IterImpl.nextToken(iter);
+        if (c == ',') {
+            return true;
+        }
+        if (c != '}') {
+            throw iter.reportError("readValidated", "expect , or }");
+        }
+        return false;
+    }
+
+    // the hash of CodegenImplObjectHash.calcHash, over the bytes of the field name
+    static int fieldHash(Slice field) {
+        long hash = 0x811c9dc5;
+        byte[] data = field.data();
+        for (int i = field.head(); i < field.tail(); i++) {
+            hash ^= data[i];
+            hash *= 0x1000193;
+        }
+        return (int) hash;
+    }
+
+    private static Validator getValidator(String typeName, JsonIterator iter) {
+        Validator validator = SchemaRegistry.getValidator(typeName);
+        if (validator != null) {
+            return validator;
+        }
+        if (SchemaRegistry.getDefinition(typeName) == null) {
+            throw iter.reportError("readValidated", "no schema defined for " + typeName);
+        }
+        return gen(typeName);
+    }
+
+    private synchronized static Validator gen(String typeName) {
+        Validator validator = SchemaRegistry.getValidator(typeName);
+        if (validator != null) {
+            return validator;
+        }
+        int version = SchemaRegistry.version();
+        Map<String, Validator> generated = new HashMap<String, Validator>();
+        validator = gen(SchemaRegistry.getDefinition(typeName), generated);
+        SchemaRegistry.addNewValidators(generated, version);
+        return validator;
+    }
+
+    private static Validator gen(TypeDefinition definition, Map<String, Validator> generated) {
+        Validator validator = generated.get(definition.name);
+        if (validator != null) {
+            return validator;
+        }
+        String cacheKey = "jsoniter_codegen.schema." + definition.name.replaceAll("[^A-Za-z0-9_]", "_") + "_" + (++generatedCount);
+        Source source = new Source(definition);
+        String method = "public static java.lang.Object validate_(com.jsoniter.JsonIterator iter, boolean keep) throws java.io.IOException { "
+                + source.lines + "}";
+        if ("true".equals(System.getenv("JSONITER_DEBUG"))) {
+            System.out.println(">>> " + cacheKey);
+            System.out.println(source.fields);
+            System.out.println(method);
+        }
+        try {
+            validator = DynamicCodegen.genValidator(cacheKey, source.fields, method);
+            for (Map.Entry<String, Object> constant : source.constants.entrySet()) {
+                validator.getClass().getField(constant.getKey()).set(null, constant.getValue());
+            }
+        } catch (Exception e) {
+            throw new JsonException("failed to generate validator for: " + definition.name + ", exception: " + e + "\n" + method, e);
+        }
+        // registered before the links are resolved, a type referring back to this one finds it
+        generated.put(definition.name, validator);
+        for (Map.Entry<String, TypeDefinition> link : source.links.entrySet()) {
+            Validator linked = gen(link.getValue(), generated);
+            try {
+                validator.getClass().getField(link.getKey()).set(null, linked);
+            } catch (Exception e) {
+                throw new JsonException("failed to link validator of: " + definition.name, e);
+            }
+        }
+        return validator;
+    }
+
+    static class Source {
+
+        final StringBuilder lines = new StringBuilder();
+        // declarations of the static fields
+        final List<String> fields = new ArrayList<String>();
+        final Map<String, Object> constants = new LinkedHashMap<String, Object>();
+        // static field of a validator => definition of its type
+        final Map<String, TypeDefinition> links = new LinkedHashMap<String, TypeDefinition>();
+        private final Map<String, String> linkFields = new HashMap<String, String>();
+        private final String op;
+
+        Source(TypeDefinition definition) {
+            op = quote(definition.name);
+            String type = constant("com.jsoniter.TysonType", TypeNameRegistry.lookup(definition.name));
+            switch (definition.kind) {
+                case ATOMIC:
+                    genAtomic(definition, type);
+                    break;
+                case OBJECT:
+                    genObject(definition, type);
+                    break;
+                case ARRAY:
+                    genArray(definition, type);
+                    break;
+            }
+        }
+
+        private void genAtomic(TypeDefinition definition, String type) {
+            TysonType baseType = TypeNameRegistry.lookup(definition.baseTypeName);
+            if (!baseType.isBuiltIn()) {
+                throw new JsonException("atomic type " + definition.name + " must restrict a built-in type, found " + baseType);
+            }
+            append(String.format("com.jsoniter.ValueType valueType = com.jsoniter.CodegenAccess.readValidatedStart(%s, iter);", type));
+            append(String.format("java.lang.Object val = com.jsoniter.CodegenAccess.readBuiltIn(%s, valueType, iter);",
+                    builtIn(baseType)));
+            if (baseType == TysonType.STRING) {
+                genLengthCheck(definition, "((java.lang.String) val).length()");
+            }
+            if (baseType == TysonType.DECIMAL) {
+                genDecimalBounds(definition);
+            } else if (baseType == TysonType.INTEGER) {
+                genIntegerBounds(definition);
+            } else if (baseType == TysonType.DOUBLE) {
+                genDoubleBounds(definition);
+            }
+            if (definition.enumeration != null) {
+                String enumeration = constant("java.util.Set", new HashSet<String>(definition.enumeration));
+                append("java.lang.String lexical = java.lang.String.valueOf(val);");
+                append(String.format("if (!%s.contains(lexical)) { throw iter.reportError(%s, \"not in enumeration: \" + lexical); }",
+                        enumeration, op));
+            }
+            append("return val;");
+        }
+
+        private void genDecimalBounds(TypeDefinition definition) {
+            if (definition.minInclusive != null) {
+                append(String.format("if (((java.math.BigDecimal) val).compareTo(%s) < 0) { throw iter.reportError(%s, %s); }",
+                        constant("java.math.BigDecimal", definition.minInclusive), op, quote("less than minInclusive " + definition.minInclusive)));
+            }
+            if (definition.maxInclusive != null) {
+                append(String.format("if (((java.math.BigDecimal) val).compareTo(%s) > 0) { throw iter.reportError(%s, %s); }",
+                        constant("java.math.BigDecimal", definition.maxInclusive), op, quote("greater than maxInclusive " + definition.maxInclusive)));
+            }
+        }
+
+        // integers are read as Integer or Long, the bounds are rounded inwards to the nearest long.
+        // beyond the range of long they are read as Double, compared exactly as BigDecimal
+        private void genIntegerBounds(TypeDefinition definition) {
+            BigDecimal min = definition.minInclusive;
+            BigDecimal max = definition.maxInclusive;
+            if (min == null && max == null) {
+                return;
+            }
+            append("if (val instanceof java.lang.Integer || val instanceof java.lang.Long) {");
+            append("long longVal = ((java.lang.Number) val).longValue();");
+            if (min != null && min.compareTo(MIN_LONG) > 0) {
+                String condition = min.compareTo(MAX_LONG) > 0 ? "true"
+                        : "longVal < " + min.setScale(0, RoundingMode.CEILING).longValue() + "L";
+                append(String.format("if (%s) { throw iter.reportError(%s, %s); }",
+                        condition, op, quote("less than minInclusive " + min)));
+            }
+            if (max != null && max.compareTo(MAX_LONG) < 0) {
+                String condition = max.compareTo(MIN_LONG) < 0 ? "true"
+                        : "longVal > " + max.setScale(0, RoundingMode.FLOOR).longValue() + "L";
+                append(String.format("if (%s) { throw iter.reportError(%s, %s); }",
+                        condition, op, quote("greater than maxInclusive " + max)));
+            }
+            append("} else {");
+            append("java.math.BigDecimal bigVal = new java.math.BigDecimal(((java.lang.Number) val).doubleValue());");
+            if (min != null) {
+                append(String.format("if (bigVal.compareTo(%s) < 0) { throw iter.reportError(%s, %s); }",
+                        constant("java.math.BigDecimal", min), op, quote("less than minInclusive " + min)));
+            }
+            if (max != null) {
+                append(String.format("if (bigVal.compareTo(%s) > 0) { throw iter.reportError(%s, %s); }",
+                        constant("java.math.BigDecimal", max), op, quote("greater than maxInclusive " + max)));
+            }
+            append("}");
+        }
+
+        private void genDoubleBounds(TypeDefinition definition) {
+            if (definition.minInclusive == null && definition.maxInclusive == null) {
+                return;
+            }
+            // NaN compares false to anything
+            append(String.format("if (((java.lang.Double) val).isNaN()) { throw iter.reportError(%s, \"NaN is not within bounds\"); }", op));
+            if (definition.minInclusive != null) {
+                append(String.format("if (((java.lang.Double) val).doubleValue() < %s) { throw iter.reportError(%s, %s); }",
+                        doubleLiteral(definition.minInclusive), op, quote("less than minInclusive " + definition.minInclusive)));
+            }
+            if (definition.maxInclusive != null) {
+                append(String.format("if (((java.lang.Double) val).doubleValue() > %s) { throw iter.reportError(%s, %s); }",
+                        doubleLiteral(definition.maxInclusive), op, quote("greater than maxInclusive " + definition.maxInclusive)));
+            }
+        }
+
+        private void genObject(TypeDefinition definition, String type) {
+            append(String.format("if (com.jsoniter.CodegenAccess.readValidatedStart(%s, iter) != com.jsoniter.ValueType.OBJECT) {", type));
+            append(String.format("throw iter.reportError(%s, \"expect object\");", op));
+            append("}");
+            append("java.util.HashMap map = keep ? new java.util.HashMap() : null;");
+            List<TypeDefinition.FieldDefinition> fields = definition.fields;
+            for (int i = 0; i < fields.size(); i++) {
+                if (fields.get(i).required) {
+                    append(String.format("boolean found%d = false;", i));
+                }
+            }
+            // fields of the same hash share their case, the name is compared anyway
+            TreeMap<Integer, List<Integer>> byHash = new TreeMap<Integer, List<Integer>>();
+            for (int i = 0; i < fields.size(); i++) {
+                int hash = CodegenImplObjectHash.calcHash(fields.get(i).name);
+                List<Integer> sameHash = byHash.get(hash);
+                if (sameHash == null) {
+                    sameHash = new ArrayList<Integer>();
+                    byHash.put(hash, sameHash);
+                }
+                sameHash.add(i);
+            }
+            append("if (com.jsoniter.CodegenAccess.readObjectStart(iter)) {");
+            append("do {");
+            append("com.jsoniter.spi.Slice field = com.jsoniter.CodegenAccess.readObjectFieldAsSlice(iter);");
+            if (!fields.isEmpty()) {
+                append("switch (com.jsoniter.CodegenAccess.fieldHash(field)) {");
+                for (Map.Entry<Integer, List<Integer>> entry : byHash.entrySet()) {
+                    append("case " + entry.getKey() + ":");
+                    for (int i : entry.getValue()) {
+                        TypeDefinition.FieldDefinition field = fields.get(i);
+                        append(String.format("if (field.equals(%s)) {", constant("com.jsoniter.spi.Slice", Slice.make(field.name))));
+                        if (field.required) {
+                            append(String.format("found%d = true;", i));
+                        }
+                        append(String.format("java.lang.Object val%d = %s;", i, genRead(field.typeName)));
+                        append(String.format("if (keep) { map.put(%s, val%d); }", quote(field.name), i));
+                        append("continue;");
+                        append("}");
+                    }
+                    append("break;");
+                }
+                append("}");
+            }
+            if (definition.closed) {
+                append(String.format("throw iter.reportError(%s, \"unexpected field \" + field);", op));
+            } else {
+                append("if (keep) { map.put(field.toString(), iter.read()); } else { iter.skip(); }");
+            }
+            append("} while (com.jsoniter.CodegenAccess.nextValidatedField(iter));");
+            append("}");
+            for (int i = 0; i < fields.size(); i++) {
+                TypeDefinition.FieldDefinition field = fields.get(i);
+                if (field.required) {
+                    append(String.format("if (!found%d) { throw iter.reportError(%s, %s); }",
+                            i, op, quote("missing required field " + field.name)));
+                }
+            }
+            append("return map;");
+        }
+
+        private void genArray(TypeDefinition definition, String type) {
+            append(String.format("if (com.jsoniter.CodegenAccess.readValidatedStart(%s, iter) != com.jsoniter.ValueType.ARRAY) {", type));
+            append(String.format("throw iter.reportError(%s, \"expect array\");", op));
+            append("}");
+            append("java.util.ArrayList list = keep ? new java.util.ArrayList() : null;");
+            append("int size = 0;");
+            append("while (iter.readArray()) {");
+            append(String.format("java.lang.Object element = %s;", genRead(definition.baseTypeName)));
+            append("if (keep) { list.add(element); }");
+            append("size++;");
+            append("}");
+            genLengthCheck(definition, "size");
+            append("return list;");
+        }
+
+        private void genLengthCheck(TypeDefinition definition, String length) {
+            if (definition.minLength != null) {
+                append(String.format("if (%s < %d) { throw iter.reportError(%s, \"shorter than minLength %d\"); }",
+                        length, definition.minLength, op, definition.minLength));
+            }
+            if (definition.maxLength != null) {
+                append(String.format("if (%s > %d) { throw iter.reportError(%s, \"longer than maxLength %d\"); }",
+                        length, definition.maxLength, op, definition.maxLength));
+            }
+        }
+
+        // built-in types are constants, user-defined types are linked validators
+        private String genRead(String typeName) {
+            TysonType type = TypeNameRegistry.lookup(typeName);
+            if (type.isBuiltIn()) {
+                return String.format("com.jsoniter.CodegenAccess.readBuiltInValidated(%s, iter)", builtIn(type));
+            }
+            TypeDefinition definition = SchemaRegistry.getDefinition(typeName);
+            if (definition == null) {
+                // reported when a value of the type is met, the type may be defined by then
+                return String.format("com.jsoniter.CodegenAccess.readValidated(%s, iter)", quote(typeName));
+            }
+            String field = linkFields.get(typeName);
+            if (field == null) {
+                field = "v" + links.size();
+                fields.add("public static com.jsoniter.spi.Validator " + field + ";");
+                links.put(field, definition);
+                linkFields.put(typeName, field);
+            }
+            return field + ".validate(iter, keep)";
+        }
+
+        private String constant(String className, Object value) {
+            String field = "c" + constants.size();
+            fields.add("public static " + className + " " + field + ";");
+            constants.put(field, value);
+            return field;
+        }
+
+        private void append(String str) {
+            lines.append(str);
+            lines.append("\n");
+        }
+    }
+
+    private static String builtIn(TysonType type) {
+        return "com.jsoniter.TysonType." + type.name().toUpperCase();
+    }
+
+    // the double nearest to the bound, bounds beyond the range of double are infinite
+    private static String doubleLiteral(BigDecimal bound) {
+        double value = bound.doubleValue();
+        if (value == Double.POSITIVE_INFINITY) {
+            return "java.lang.Double.POSITIVE_INFINITY";
+        }
+        if (value == Double.NEGATIVE_INFINITY) {
+            return "java.lang.Double.NEGATIVE_INFINITY";
+        }
+        return Double.toString(value);
+    }
+
+    private static String quote(String str) {
+        return '"' + str.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+}
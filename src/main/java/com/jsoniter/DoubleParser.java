@@ -0,0 +1,347 @@
+package com.jsoniter;
+
+import java.math.BigInteger;
+
+// decimal to double or float without going through a String, correctly rounded.
+// exact small values take one floating point operation (Clinger), the others Eisel-Lemire as done by fast_float,
+// more than 19 significant digits or an unexpected form go to Double.parseDouble / Float.parseFloat
+final class DoubleParser {
+
+    private static final int SMALLEST_POWER_OF_TEN = -342;
+    private static final int LARGEST_POWER_OF_TEN = 308;
+    private static final int MAX_SIGNIFICANT_DIGITS = 19;
+    private static final int MANTISSA_BITS = 52;
+    private static final int MINIMUM_EXPONENT = -1023;
+    private static final int INFINITE_POWER = 0x7FF;
+    private static final int FLOAT_SMALLEST_POWER_OF_TEN = -65;
+    private static final int FLOAT_LARGEST_POWER_OF_TEN = 38;
+    private static final int FLOAT_MANTISSA_BITS = 23;
+    private static final int FLOAT_MINIMUM_EXPONENT = -127;
+    private static final int FLOAT_INFINITE_POWER = 0xFF;
+
+    // 128 bits approximation of 5^q for q in [-342, 308], as high and low 64 bits
+    private static final long[] POWERS_OF_FIVE = new long[2 * (LARGEST_POWER_OF_TEN - SMALLEST_POWER_OF_TEN + 1)];
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final float[] EXACT_FLOAT_POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+    static {
+        BigInteger five = BigInteger.valueOf(5);
+        for (int q = SMALLEST_POWER_OF_TEN; q <= LARGEST_POWER_OF_TEN; q++) {
+            BigInteger approximation;
+            if (q < 0) {
+                // 2^b / 5^-q rounded up, b keeps at least 128 significant bits
+                BigInteger power5 = five.pow(-q);
+                int z = power5.bitLength();
+                int b = q >= -27 ? z + 127 : 2 * z + 128;
+                approximation = BigInteger.ONE.shiftLeft(b).divide(power5).add(BigInteger.ONE);
+            } else {
+                approximation = five.pow(q);
+            }
+            // normalize to exactly 128 bits, truncating
+            int bitLength = approximation.bitLength();
+            if (bitLength < 128) {
+                approximation = approximation.shiftLeft(128 - bitLength);
+            } else {
+                approximation = approximation.shiftRight(bitLength - 128);
+            }
+            int index = 2 * (q - SMALLEST_POWER_OF_TEN);
+            POWERS_OF_FIVE[index] = approximation.shiftRight(64).longValue();
+            POWERS_OF_FIVE[index + 1] = approximation.longValue();
+        }
+    }
+
+    private DoubleParser() {
+    }
+
+    /**
+     * @throws NumberFormatException the same way Double.parseDouble does
+     */
+    static double parseDouble(byte[] buf, int head, int tail) {
+        return parse(buf, head, tail, false);
+    }
+
+    static float parseFloat(byte[] buf, int head, int tail) {
+        return (float) parse(buf, head, tail, true);
+    }
+
+    static double parseDouble(char[] chars, int head, int tail) {
+        return parse(chars, head, tail, false);
+    }
+
+    static float parseFloat(char[] chars, int head, int tail) {
+        return (float) parse(chars, head, tail, true);
+    }
+
+    // a float result is returned widened to double, which is exact
+    private static double parse(byte[] buf, int head, int tail, boolean singlePrecision) {
+        int i = head;
+        boolean negative = false;
+        if (i < tail && (buf[i] == '-' || buf[i] == '+')) {
+            negative = buf[i] == '-';
+            i++;
+        }
+        long mantissa = 0; // unsigned, up to 19 digits
+        int significantDigits = 0;
+        int digits = 0;
+        int exp10 = 0;
+        for (; i < tail; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) {
+                break;
+            }
+            digits++;
+            if (significantDigits < MAX_SIGNIFICANT_DIGITS) {
+                mantissa = mantissa * 10 + d;
+                if (mantissa != 0) {
+                    significantDigits++;
+                }
+            } else if (d == 0) {
+                exp10++;
+            } else {
+                return fallback(buf, head, tail, singlePrecision);
+            }
+        }
+        if (i < tail && buf[i] == '.') {
+            for (i++; i < tail; i++) {
+                int d = buf[i] - '0';
+                if (d < 0 || d > 9) {
+                    break;
+                }
+                digits++;
+                if (significantDigits < MAX_SIGNIFICANT_DIGITS) {
+                    mantissa = mantissa * 10 + d;
+                    exp10--;
+                    if (mantissa != 0) {
+                        significantDigits++;
+                    }
+                } else if (d != 0) {
+                    return fallback(buf, head, tail, singlePrecision);
+                }
+            }
+        }
+        if (digits == 0) {
+            return fallback(buf, head, tail, singlePrecision);
+        }
+        if (i < tail && (buf[i] == 'e' || buf[i] == 'E')) {
+            i++;
+            boolean negativeExp = false;
+            if (i < tail && (buf[i] == '-' || buf[i] == '+')) {
+                negativeExp = buf[i] == '-';
+                i++;
+            }
+            int expStart = i;
+            int exp = 0;
+            for (; i < tail; i++) {
+                int d = buf[i] - '0';
+                if (d < 0 || d > 9) {
+                    break;
+                }
+                if (exp < 100000) {
+                    exp = exp * 10 + d;
+                }
+            }
+            if (i == expStart) {
+                return fallback(buf, head, tail, singlePrecision);
+            }
+            exp10 += negativeExp ? -exp : exp;
+        }
+        if (i != tail) {
+            return fallback(buf, head, tail, singlePrecision);
+        }
+        return singlePrecision ? toFloat(negative, mantissa, exp10) : toDouble(negative, mantissa, exp10);
+    }
+
+    // the same for the chars collected by IterImplForStreaming.readNumber
+    private static double parse(char[] chars, int head, int tail, boolean singlePrecision) {
+        int i = head;
+        boolean negative = false;
+        if (i < tail && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int exp10 = 0;
+        for (; i < tail; i++) {
+            int d = chars[i] - '0';
+            if (d < 0 || d > 9) {
+                break;
+            }
+            digits++;
+            if (significantDigits < MAX_SIGNIFICANT_DIGITS) {
+                mantissa = mantissa * 10 + d;
+                if (mantissa != 0) {
+                    significantDigits++;
+                }
+            } else if (d == 0) {
+                exp10++;
+            } else {
+                return fallback(chars, head, tail, singlePrecision);
+            }
+        }
+        if (i < tail && chars[i] == '.') {
+            for (i++; i < tail; i++) {
+                int d = chars[i] - '0';
+                if (d < 0 || d > 9) {
+                    break;
+                }
+                digits++;
+                if (significantDigits < MAX_SIGNIFICANT_DIGITS) {
+                    mantissa = mantissa * 10 + d;
+                    exp10--;
+                    if (mantissa != 0) {
+                        significantDigits++;
+                    }
+                } else if (d != 0) {
+                    return fallback(chars, head, tail, singlePrecision);
+                }
+            }
+        }
+        if (digits == 0) {
+            return fallback(chars, head, tail, singlePrecision);
+        }
+        if (i < tail && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            boolean negativeExp = false;
+            if (i < tail && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExp = chars[i] == '-';
+                i++;
+            }
+            int expStart = i;
+            int exp = 0;
+            for (; i < tail; i++) {
+                int d = chars[i] - '0';
+                if (d < 0 || d > 9) {
+                    break;
+                }
+                if (exp < 100000) {
+                    exp = exp * 10 + d;
+                }
+            }
+            if (i == expStart) {
+                return fallback(chars, head, tail, singlePrecision);
+            }
+            exp10 += negativeExp ? -exp : exp;
+        }
+        if (i != tail) {
+            return fallback(chars, head, tail, singlePrecision);
+        }
+        return singlePrecision ? toFloat(negative, mantissa, exp10) : toDouble(negative, mantissa, exp10);
+    }
+
+    private static double fallback(byte[] buf, int head, int tail, boolean singlePrecision) {
+        String str = new String(buf, head, tail - head);
+        return singlePrecision ? Float.parseFloat(str) : Double.parseDouble(str);
+    }
+
+    private static double fallback(char[] chars, int head, int tail, boolean singlePrecision) {
+        String str = new String(chars, head, tail - head);
+        return singlePrecision ? Float.parseFloat(str) : Double.parseDouble(str);
+    }
+
+    // mantissa * 10^exp10, mantissa is unsigned and exact
+    private static double toDouble(boolean negative, long mantissa, int exp10) {
+        if (mantissa == 0) {
+            return negative ? -0.0d : 0.0d;
+        }
+        if (exp10 >= -22 && exp10 <= 22 && mantissa > 0 && mantissa <= 1L << 53) {
+            // both operands are exact, the single operation rounds correctly
+            double value = mantissa;
+            value = exp10 < 0 ? value / EXACT_POWERS_OF_TEN[-exp10] : value * EXACT_POWERS_OF_TEN[exp10];
+            return negative ? -value : value;
+        }
+        double value = Double.longBitsToDouble(eiselLemire(mantissa, exp10, false));
+        return negative ? -value : value;
+    }
+
+    private static float toFloat(boolean negative, long mantissa, int exp10) {
+        if (mantissa == 0) {
+            return negative ? -0.0f : 0.0f;
+        }
+        if (exp10 >= -10 && exp10 <= 10 && mantissa > 0 && mantissa <= 1L << 24) {
+            float value = mantissa;
+            value = exp10 < 0 ? value / EXACT_FLOAT_POWERS_OF_TEN[-exp10] : value * EXACT_FLOAT_POWERS_OF_TEN[exp10];
+            return negative ? -value : value;
+        }
+        float value = Float.intBitsToFloat((int) eiselLemire(mantissa, exp10, true));
+        return negative ? -value : value;
+    }
+
+    // bits of the positive double or float closest to w * 10^q
+    private static long eiselLemire(long w, int q, boolean singlePrecision) {
+        int mantissaBits = singlePrecision ? FLOAT_MANTISSA_BITS : MANTISSA_BITS;
+        int infinitePower = singlePrecision ? FLOAT_INFINITE_POWER : INFINITE_POWER;
+        if (q < (singlePrecision ? FLOAT_SMALLEST_POWER_OF_TEN : SMALLEST_POWER_OF_TEN)) {
+            return 0;
+        }
+        if (q > (singlePrecision ? FLOAT_LARGEST_POWER_OF_TEN : LARGEST_POWER_OF_TEN)) {
+            return (long) infinitePower << mantissaBits;
+        }
+        int lz = Long.numberOfLeadingZeros(w);
+        w <<= lz;
+        // 128 bits product, the lower half of the power is only needed when the upper bits are ambiguous
+        int index = 2 * (q - SMALLEST_POWER_OF_TEN);
+        long high = multiplyHigh(w, POWERS_OF_FIVE[index]);
+        long low = w * POWERS_OF_FIVE[index];
+        long precisionMask = 0xFFFFFFFFFFFFFFFFL >>> (mantissaBits + 3);
+        if ((high & precisionMask) == precisionMask) {
+            long secondHigh = multiplyHigh(w, POWERS_OF_FIVE[index + 1]);
+            low += secondHigh;
+            if (unsignedLessThan(low, secondHigh)) {
+                high++;
+            }
+        }
+        int upperBit = (int) (high >>> 63);
+        int shift = upperBit + 64 - mantissaBits - 3;
+        long mantissa = high >>> shift;
+        int power2 = (((152170 + 65536) * q) >> 16) + 63 + upperBit - lz
+                - (singlePrecision ? FLOAT_MINIMUM_EXPONENT : MINIMUM_EXPONENT);
+        if (power2 <= 0) {
+            // subnormal
+            if (-power2 + 1 >= 64) {
+                return 0;
+            }
+            mantissa >>>= -power2 + 1;
+            mantissa += mantissa & 1;
+            mantissa >>>= 1;
+            power2 = mantissa < (1L << mantissaBits) ? 0 : 1;
+            return mantissa | ((long) power2 << mantissaBits);
+        }
+        if ((low == 0 || low == 1) && (mantissa & 3) == 1
+                && (singlePrecision ? q >= -17 && q <= 10 : q >= -4 && q <= 23)) {
+            // exactly halfway, round to even
+            if ((mantissa << shift) == high) {
+                mantissa &= ~1L;
+            }
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (2L << mantissaBits)) {
+            mantissa = 1L << mantissaBits;
+            power2++;
+        }
+        mantissa &= ~(1L << mantissaBits);
+        if (power2 >= infinitePower) {
+            return (long) infinitePower << mantissaBits;
+        }
+        return mantissa | ((long) power2 << mantissaBits);
+    }
+
+    // upper 64 bits of the unsigned 128 bits product
+    private static long multiplyHigh(long x, long y) {
+        long x0 = x & 0xFFFFFFFFL;
+        long x1 = x >>> 32;
+        long y0 = y & 0xFFFFFFFFL;
+        long y1 = y >>> 32;
+        long p01 = x0 * y1;
+        long middle = x1 * y0 + ((x0 * y0) >>> 32) + (p01 & 0xFFFFFFFFL);
+        return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+    }
+
+    private static boolean unsignedLessThan(long a, long b) {
+        return (a + Long.MIN_VALUE) < (b + Long.MIN_VALUE);
+    }
+}
@@ -1,8 +1,11 @@
 package com.jsoniter;
 
 import com.jsoniter.spi.Decoder;
+import com.jsoniter.spi.Validator;
 import javassist.*;
 
+import java.util.List;
+
 class DynamicCodegen {
 
     static ClassPool pool = ClassPool.getDefault();
@@ -26,6 +29,26 @@ class DynamicCodegen {
         return decoder;
     }
 
+    // the static fields are declared by the source, and set by the caller once the class is loaded
+    public static Validator genValidator(String cacheKey, List<String> fields, String source) throws Exception {
+        CtClass ctClass = pool.makeClass(cacheKey);
+        ctClass.setInterfaces(new CtClass[]{pool.get(Validator.class.getName())});
+        for (String field : fields) {
+            ctClass.addField(CtField.make(field, ctClass));
+        }
+        CtMethod staticMethod = CtNewMethod.make(source, ctClass);
+        ctClass.addMethod(staticMethod);
+        ctClass.addMethod(CtNewMethod.make("" +
+                "public Object validate(com.jsoniter.JsonIterator iter, boolean keep) {" +
+                "return validate_(iter, keep);" +
+                "}", ctClass));
+        ctClass.addMethod(CtNewMethod.make("" +
+                "public Object decode(com.jsoniter.JsonIterator iter) {" +
+                "return validate_(iter, true);" +
+                "}", ctClass));
+        return (Validator) ctClass.toClass().newInstance();
+    }
+
     public static void enableStreamingSupport() throws Exception {
         CtClass ctClass = pool.makeClass("com.jsoniter.IterImpl");
         ctClass.setSuperclass(pool.get(IterImplForStreaming.class.getName()));
@@ -15,6 +15,9 @@ class IterImpl {
     private static BigInteger minInt = BigInteger.valueOf(Integer.MIN_VALUE);
 
     public static final int readObjectFieldAsHash(JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            return IterImplForStreaming.readObjectFieldAsHash(iter);
+        }
         if (readByte(iter) != '"') {
             if (nextToken(iter) != '"') {
                 throw iter.reportError("readObjectFieldAsHash", "expect \"");
@@ -39,7 +42,52 @@ class IterImpl {
         return (int) hash;
     }
 
+    // consume ("name") and resolve the name in place, without allocating for known types
+    public static final TysonType readTypeAnnotation(JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            return IterImplForStreaming.readTypeAnnotation(iter);
+        }
+        if (nextToken(iter) != '(') {
+            throw iter.reportError("readTypeAnnotation", "expect (");
+        }
+        if (nextToken(iter) != '"') {
+            throw iter.reportError("readTypeAnnotation", "expect \" after (");
+        }
+        long hash = 0x811c9dc5;
+        int start = iter.head;
+        int i = start;
+        TysonType type = null;
+        for (; i < iter.tail; i++) {
+            byte c = iter.buf[i];
+            if (c == '"') {
+                type = TypeNameRegistry.lookup(iter.buf, start, i, (int) hash);
+                iter.typeAnnotation.reset(iter.buf, start, i);
+                iter.head = i + 1;
+                break;
+            }
+            if (c == '\\') {
+                // escaped type name, let the string decoder deal with it
+                iter.head = start - 1;
+                type = TypeNameRegistry.lookup(IterImplString.readString(iter));
+                iter.typeAnnotation.reset(type.nameBytes, 0, type.nameBytes.length);
+                break;
+            }
+            hash ^= c;
+            hash *= 0x1000193;
+        }
+        if (type == null) {
+            throw iter.reportError("readTypeAnnotation", "incomplete type name");
+        }
+        if (nextToken(iter) != ')') {
+            throw iter.reportError("readTypeAnnotation", "expect )");
+        }
+        return type;
+    }
+
     public static final Slice readObjectFieldAsSlice(JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            return IterImplForStreaming.readObjectFieldAsSlice(iter);
+        }
         Slice field = readSlice(iter);
         if (nextToken(iter) != ':') {
             throw iter.reportError("readObjectFieldAsSlice", "expect : after object field");
@@ -48,8 +96,15 @@ class IterImpl {
     }
 
     final static void skipArray(JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            IterImplForStreaming.skipArray(iter);
+            return;
+        }
+        if (iter.structuralIndex != null && iter.structuralIndex.skipContainer(iter)) {
+            return;
+        }
         int level = 1;
-        for (int i = iter.head; i < iter.tail; i++) {
+        for (int i = iter.head; (i = IterImplScan.findStructural(iter.buf, i, iter.tail, (byte) '[', (byte) ']')) != -1; i++) {
             switch (iter.buf[i]) {
                 case '"': // If inside string, skip it
                     iter.head = i + 1;
@@ -74,8 +129,15 @@ class IterImpl {
     }
 
     final static void skipObject(JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            IterImplForStreaming.skipObject(iter);
+            return;
+        }
+        if (iter.structuralIndex != null && iter.structuralIndex.skipContainer(iter)) {
+            return;
+        }
         int level = 1;
-        for (int i = iter.head; i < iter.tail; i++) {
+        for (int i = iter.head; (i = IterImplScan.findStructural(iter.buf, i, iter.tail, (byte) '{', (byte) '}')) != -1; i++) {
             switch (iter.buf[i]) {
                 case '"': // If inside string, skip it
                     iter.head = i + 1;
@@ -100,6 +162,10 @@ class IterImpl {
     }
 
     final static void skipString(JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            IterImplForStreaming.skipString(iter);
+            return;
+        }
         int end = IterImplSkip.findStringEnd(iter);
         if (end == -1) {
             throw iter.reportError("skipString", "incomplete string");
@@ -109,6 +175,10 @@ class IterImpl {
     }
 
     final static void skipUntilBreak(JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            IterImplForStreaming.skipUntilBreak(iter);
+            return;
+        }
         // true, false, null, number
         for (int i = iter.head; i < iter.tail; i++) {
             byte c = iter.buf[i];
@@ -121,6 +191,9 @@ class IterImpl {
     }
 
     final static boolean skipNumber(JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            return IterImplForStreaming.skipNumber(iter);
+        }
         // true, false, null, number
         boolean dotFound = false;
         for (int i = iter.head; i < iter.tail; i++) {
@@ -140,6 +213,9 @@ class IterImpl {
 
     // read the bytes between " "
     public final static Slice readSlice(JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            return IterImplForStreaming.readSlice(iter);
+        }
         if (IterImpl.nextToken(iter) != '"') {
             throw iter.reportError("readSlice", "expect \" for string");
         }
@@ -155,6 +231,9 @@ class IterImpl {
     }
 
     final static byte nextToken(final JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            return IterImplForStreaming.nextToken(iter);
+        }
         int i = iter.head;
         for (; ; ) {
             byte c = iter.buf[i++];
@@ -173,12 +252,36 @@ class IterImpl {
     }
 
     final static byte readByte(JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            return IterImplForStreaming.readByte(iter);
+        }
         return iter.buf[iter.head++];
     }
 
     public static Any readAny(JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            int start = iter.head;
+            if (enterSegment(iter)) {
+                try {
+                    Any any = readAny(iter);
+                    if (leaveSegment(iter)) {
+                        return any;
+                    }
+                } catch (RuntimeException e) {
+                    // read again below, which reports it if the end of the segment was not the cause
+                    iter.streaming = true;
+                }
+                iter.head = start;
+            }
+            return IterImplForStreaming.readAny(iter);
+        }
         int start = iter.head;
         byte c = nextToken(iter);
+        if (c == '(') {
+            iter.unreadByte();
+            readTypeAnnotation(iter);
+            return readAnnotatedAny(iter, start);
+        }
         switch (c) {
             case '"':
                 skipString(iter);
@@ -194,10 +297,10 @@ class IterImpl {
                 return Any.wrap((Object) null);
             case '[':
                 skipArray(iter);
-                return Any.lazyArray(iter.buf, start, iter.head);
+                return Any.lazyArray(iter.buf, start, start, iter.head, iter.structuralIndex);
             case '{':
                 skipObject(iter);
-                return Any.lazyObject(iter.buf, start, iter.head);
+                return Any.lazyObject(iter.buf, start, start, iter.head, iter.structuralIndex);
             default:
                 if (skipNumber(iter)) {
                     return Any.lazyDouble(iter.buf, start, iter.head);
@@ -207,15 +310,98 @@ class IterImpl {
         }
     }
 
+    private static Any readAnnotatedAny(JsonIterator iter, int annotationHead) throws IOException {
+        int start = iter.head;
+        byte c = nextToken(iter);
+        switch (c) {
+            case '"':
+                iter.unreadByte();
+                ValueType literal = QuotedLiteral.valueType(peekQuotedLiteral(iter));
+                iter.head++;
+                skipString(iter);
+                if (literal == ValueType.NUMBER) {
+                    return Any.lazyDouble(iter.buf, annotationHead, start, iter.head);
+                }
+                if (literal != ValueType.STRING) {
+                    return Any.lazyLiteral(iter.buf, annotationHead, start, iter.head);
+                }
+                return Any.lazyString(iter.buf, annotationHead, start, iter.head);
+            case 't':
+                skipFixedBytes(iter, 3);
+                return Any.lazyLiteral(iter.buf, annotationHead, start, iter.head);
+            case 'f':
+                skipFixedBytes(iter, 4);
+                return Any.lazyLiteral(iter.buf, annotationHead, start, iter.head);
+            case 'n':
+                skipFixedBytes(iter, 3);
+                return Any.lazyLiteral(iter.buf, annotationHead, start, iter.head);
+            case '[':
+                skipArray(iter);
+                return Any.lazyArray(iter.buf, annotationHead, start, iter.head, iter.structuralIndex);
+            case '{':
+                skipObject(iter);
+                return Any.lazyObject(iter.buf, annotationHead, start, iter.head, iter.structuralIndex);
+            default:
+                if (skipNumber(iter)) {
+                    return Any.lazyDouble(iter.buf, annotationHead, start, iter.head);
+                } else {
+                    return Any.lazyLong(iter.buf, annotationHead, start, iter.head);
+                }
+        }
+    }
+
     public static void skipFixedBytes(JsonIterator iter, int n) throws IOException {
+        if (iter.streaming) {
+            IterImplForStreaming.skipFixedBytes(iter, n);
+            return;
+        }
         iter.head += n;
     }
 
     public final static boolean loadMore(JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            return IterImplForStreaming.loadMore(iter);
+        }
         return false;
     }
 
+    // remember the current position, so that reading can be rewound to it by resetToMark
+    final static int mark(JsonIterator iter) {
+        if (iter.streaming) {
+            return IterImplForStreaming.mark(iter);
+        }
+        return iter.head;
+    }
+
+    final static void resetToMark(JsonIterator iter, int mark) {
+        if (iter.streaming) {
+            IterImplForStreaming.resetToMark(iter, mark);
+            return;
+        }
+        iter.head = mark;
+    }
+
+    // classify the string starting at head without consuming it, escaped content is never a literal
+    final static int peekQuotedLiteral(JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            return IterImplForStreaming.peekQuotedLiteral(iter);
+        }
+        long packed = 0;
+        int end = Math.min(iter.tail, iter.head + 2 + QuotedLiteral.MAX_LENGTH);
+        for (int i = iter.head + 1; i < end; i++) {
+            byte c = iter.buf[i];
+            if (c == '"') {
+                return QuotedLiteral.classify(packed, i - iter.head - 1);
+            }
+            packed = QuotedLiteral.pack(packed, c);
+        }
+        return QuotedLiteral.STRING;
+    }
+
     public final static int readStringSlowPath(JsonIterator iter, int j) throws IOException {
+        if (iter.streaming) {
+            return IterImplForStreaming.readStringSlowPath(iter, j);
+        }
         try {
             boolean isExpectingLowSurrogate = false;
             for (int i = iter.head; i < iter.tail; ) {
@@ -327,10 +513,28 @@ class IterImpl {
     }
 
     public static int updateStringCopyBound(final JsonIterator iter, final int bound) {
+        if (iter.streaming) {
+            return IterImplForStreaming.updateStringCopyBound(iter, bound);
+        }
         return bound;
     }
 
     static final int readInt(final JsonIterator iter, final byte c) throws IOException {
+        if (iter.streaming) {
+            int start = iter.head;
+            if (enterSegment(iter)) {
+                try {
+                    int value = readInt(iter, c);
+                    if (leaveSegment(iter)) {
+                        return value;
+                    }
+                } catch (RuntimeException e) {
+                    iter.streaming = true;
+                }
+                iter.head = start;
+            }
+            return IterImplForStreaming.readInt(iter, c);
+        }
         int ind = IterImplNumber.intDigits[c];
         if (ind == 0) {
             IterImplForStreaming.assertNotLeadingZero(iter);
@@ -393,6 +597,21 @@ class IterImpl {
     }
 
     static final long readLong(final JsonIterator iter, final byte c) throws IOException {
+        if (iter.streaming) {
+            int start = iter.head;
+            if (enterSegment(iter)) {
+                try {
+                    long value = readLong(iter, c);
+                    if (leaveSegment(iter)) {
+                        return value;
+                    }
+                } catch (RuntimeException e) {
+                    iter.streaming = true;
+                }
+                iter.head = start;
+            }
+            return IterImplForStreaming.readLong(iter, c);
+        }
         long ind = IterImplNumber.intDigits[c];
         if (ind == IterImplNumber.INVALID_CHAR_FOR_NUMBER) {
             throw iter.reportError("readLong", "expect 0~9");
@@ -450,43 +669,202 @@ class IterImpl {
         return IterImplForStreaming.readLongSlowPath(iter, ind);
     }
 
-    static final double readDouble(final JsonIterator iter) throws IOException {
-        int oldHead = iter.head;
-        try {
-            try {
-                long value = IterImplNumber.readLong(iter); // without the dot & sign
-                if (iter.head == iter.tail) {
-                    return value;
+    // classify the number at head in one pass. integers are converted on the way,
+    // so that IterImplNumber can return the value without scanning the digits again
+    static final TysonType scanNumber(final JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            // the scan does not move head, the number must end before the end of the segment
+            if (findNumberEnd(iter) < iter.tail && enterSegment(iter)) {
+                try {
+                    return scanNumber(iter);
+                } finally {
+                    iter.streaming = true;
                 }
-                byte c = iter.buf[iter.head];
-                if (c == '.') {
-                    iter.head++;
-                    int start = iter.head;
-                    c = iter.buf[iter.head++];
-                    long decimalPart = readLong(iter, c);
-                    if (decimalPart == Long.MIN_VALUE) {
-                        return IterImplForStreaming.readDoubleSlowPath(iter);
-                    }
-                    decimalPart = -decimalPart;
-                    int decimalPlaces = iter.head - start;
-                    if (decimalPlaces > 0 && decimalPlaces < IterImplNumber.POW10.length && (iter.head - oldHead) < 10) {
-                        return value + (decimalPart / (double) IterImplNumber.POW10[decimalPlaces]);
-                    } else {
-                        iter.head = oldHead;
-                        return IterImplForStreaming.readDoubleSlowPath(iter);
+            }
+            return IterImplForStreaming.scanNumber(iter);
+        }
+        int i = iter.head;
+        boolean negative = false;
+        if (i < iter.tail && iter.buf[i] == '-') {
+            negative = true;
+            i++;
+        }
+        int digitsStart = i;
+        long value = 0; // accumulate negatives to fit Long.MIN_VALUE
+        boolean overflow = false;
+        for (; i < iter.tail; i++) {
+            if (i + 8 <= iter.tail) {
+                long word = IterImplScan.loadLong(iter.buf, i);
+                int n = IterImplNumber.countDigits(word);
+                if (n > 0 && value >= IterImplNumber.SWAR_LIMITS[n]) {
+                    value = value * IterImplNumber.POW10[n] - IterImplNumber.parseDigits(word, n);
+                    if (n < 8) {
+                        i += n;
+                        break;
                     }
-                } else {
-                    return value;
+                    i += 7;
+                    continue;
+                }
+            }
+            int ind = iter.buf[i] - '0';
+            if (ind < 0 || ind > 9) {
+                break;
+            }
+            if (value < -922337203685477580L) {
+                overflow = true;
+            }
+            value = (value << 3) + (value << 1) - ind;
+            if (value > 0) {
+                overflow = true;
+            }
+        }
+        int digitsEnd = i;
+        if (digitsEnd == digitsStart) {
+            throw iter.reportError("numberType", "expect digit after -");
+        }
+        TysonType type = TysonType.INTEGER;
+        if (i < iter.tail && iter.buf[i] == '.') {
+            type = TysonType.DECIMAL;
+            for (i++; i < iter.tail; i++) {
+                byte c = iter.buf[i];
+                if (c < '0' || c > '9') {
+                    break;
+                }
+            }
+        }
+        if (i < iter.tail && (iter.buf[i] == 'e' || iter.buf[i] == 'E')) {
+            type = TysonType.DOUBLE;
+        }
+        iter.scannedNumberEnd = -1;
+        if (type == TysonType.INTEGER && !overflow) {
+            int digits = digitsEnd - digitsStart;
+            // leave empty, leading zero and -0 to the normal path, it reports or keeps them as before
+            if (digits == 1 ? !(negative && value == 0) : (digits > 1 && iter.buf[digitsStart] != '0')) {
+                if (negative) {
+                    iter.scannedNumberEnd = digitsEnd;
+                    iter.scannedNumberValue = value;
+                } else if (value != Long.MIN_VALUE) {
+                    iter.scannedNumberEnd = digitsEnd;
+                    iter.scannedNumberValue = -value;
                 }
-            } finally {
-                if (iter.head < iter.tail && (iter.buf[iter.head] == 'e' || iter.buf[iter.head] == 'E')) {
-                    iter.head = oldHead;
-                    return IterImplForStreaming.readDoubleSlowPath(iter);
+            }
+        }
+        return type;
+    }
+
+    // the number is converted in place from the buffer, the sign is already consumed
+    static final double readDouble(final JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            int start = iter.head;
+            if (enterSegment(iter)) {
+                try {
+                    double value = readDouble(iter);
+                    if (leaveSegment(iter)) {
+                        return value;
+                    }
+                } catch (RuntimeException e) {
+                    iter.streaming = true;
                 }
+                iter.head = start;
             }
-        } catch (JsonException e) {
-            iter.head = oldHead;
+            return IterImplForStreaming.readDouble(iter);
+        }
+        int end = findNumberEnd(iter);
+        if (end == iter.head) {
             return IterImplForStreaming.readDoubleSlowPath(iter);
         }
+        try {
+            double value = DoubleParser.parseDouble(iter.buf, iter.head, end);
+            iter.head = end;
+            return value;
+        } catch (NumberFormatException e) {
+            throw iter.reportError("readDouble", e.toString());
+        }
+    }
+
+    static final float readFloat(final JsonIterator iter) throws IOException {
+        if (iter.streaming) {
+            int start = iter.head;
+            if (enterSegment(iter)) {
+                try {
+                    float value = readFloat(iter);
+                    if (leaveSegment(iter)) {
+                        return value;
+                    }
+                } catch (RuntimeException e) {
+                    iter.streaming = true;
+                }
+                iter.head = start;
+            }
+            return IterImplForStreaming.readFloat(iter);
+        }
+        int end = findNumberEnd(iter);
+        if (end == iter.head) {
+            return IterImplForStreaming.readFloatSlowPath(iter);
+        }
+        try {
+            float value = DoubleParser.parseFloat(iter.buf, iter.head, end);
+            iter.head = end;
+            return value;
+        } catch (NumberFormatException e) {
+            throw iter.reportError("readFloat", e.toString());
+        }
+    }
+
+    // segmented input: numbers and lazy Any are read in memory from the current segment, the other paths
+    // of IterImplForStreaming are as fast as the in memory ones away from a seam. the in memory path
+    // does not load the next segment, a value reaching the end of the segment is read again by
+    // IterImplForStreaming from where it started. lazy Any must not refer to the reused joined buffer
+    private static boolean enterSegment(JsonIterator iter) {
+        if (iter.segments == null || iter.buf == iter.joinedSegments) {
+            return false;
+        }
+        iter.streaming = false;
+        return true;
+    }
+
+    // true if the value read in memory ended within the segment, or exactly at the end of the input
+    private static boolean leaveSegment(JsonIterator iter) {
+        iter.streaming = true;
+        if (iter.head != iter.tail) {
+            return iter.head < iter.tail;
+        }
+        if (iter.in != null) {
+            // more segments might be read from it
+            return false;
+        }
+        for (int i = iter.nextSegment; i < iter.segments.length; i++) {
+            if (iter.segments[i].len() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the same characters as IterImplForStreaming.readNumber
+    private static int findNumberEnd(final JsonIterator iter) {
+        int i = iter.head;
+        for (; i < iter.tail; i++) {
+            switch (iter.buf[i]) {
+                case '.':
+                case 'e':
+                case 'E':
+                case '-':
+                case '+':
+                case '0':
+                case '1':
+                case '2':
+                case '3':
+                case '4':
+                case '5':
+                case '6':
+                case '7':
+                case '8':
+                case '9':
+                    continue;
+            }
+            break;
+        }
+        return i;
     }
 }
@@ -37,6 +37,23 @@ class IterImplForStreaming {
         }
     }
 
+    public static final TysonType readTypeAnnotation(JsonIterator iter) throws IOException {
+        if (nextToken(iter) != '(') {
+            throw iter.reportError("readTypeAnnotation", "expect (");
+        }
+        String name = IterImplString.readString(iter);
+        if (name == null) {
+            throw iter.reportError("readTypeAnnotation", "expect \" after (");
+        }
+        TysonType type = TypeNameRegistry.lookup(name);
+        // the buffer might be reloaded before the caller looks at the name
+        iter.typeAnnotation.reset(type.nameBytes, 0, type.nameBytes.length);
+        if (nextToken(iter) != ')') {
+            throw iter.reportError("readTypeAnnotation", "expect )");
+        }
+        return type;
+    }
+
     public static final Slice readObjectFieldAsSlice(JsonIterator iter) throws IOException {
         Slice field = readSlice(iter);
         boolean notCopied = field != null;
@@ -59,9 +76,12 @@ class IterImplForStreaming {
     }
 
     final static void skipArray(JsonIterator iter) throws IOException {
+        if (iter.structuralIndex != null && iter.structuralIndex.skipContainer(iter)) {
+            return;
+        }
         int level = 1;
         for (; ; ) {
-            for (int i = iter.head; i < iter.tail; i++) {
+            for (int i = iter.head; (i = IterImplScan.findStructural(iter.buf, i, iter.tail, (byte) '[', (byte) ']')) != -1; i++) {
                 switch (iter.buf[i]) {
                     case '"': // If inside string, skip it
                         iter.head = i + 1;
@@ -89,9 +109,12 @@ class IterImplForStreaming {
     }
 
     final static void skipObject(JsonIterator iter) throws IOException {
+        if (iter.structuralIndex != null && iter.structuralIndex.skipContainer(iter)) {
+            return;
+        }
         int level = 1;
         for (; ; ) {
-            for (int i = iter.head; i < iter.tail; i++) {
+            for (int i = iter.head; (i = IterImplScan.findStructural(iter.buf, i, iter.tail, (byte) '{', (byte) '}')) != -1; i++) {
                 switch (iter.buf[i]) {
                     case '"': // If inside string, skip it
                         iter.head = i + 1;
@@ -147,7 +170,7 @@ class IterImplForStreaming {
                     throw iter.reportError("skipString", "incomplete string");
                 }
                 if (escaped) {
-                    iter.head = 1; // skip the first char as last char is \
+                    iter.head++; // skip the first char loaded as last char is \, bytes kept by a skip are before it
                 }
             } else {
                 iter.head = end;
@@ -197,7 +220,7 @@ class IterImplForStreaming {
 
     // read the bytes between " "
     final static Slice readSlice(JsonIterator iter) throws IOException {
-        if (IterImpl.nextToken(iter) != '"') {
+        if (nextToken(iter) != '"') {
             throw iter.reportError("readSlice", "expect \" for string");
         }
         int end = IterImplString.findSliceEnd(iter);
@@ -253,9 +276,24 @@ class IterImplForStreaming {
     }
 
     public final static boolean loadMore(JsonIterator iter) throws IOException {
-        if (iter.in == null) {
+        // not streaming: in memory, or reading a value from the current segment only
+        if (!iter.streaming || (iter.in == null && iter.segments == null)) {
             return false;
         }
+        // positions are about to refer to other bytes
+        iter.scannedNumberAt = -1;
+        iter.typeAnnotatedValueAt = -1;
+        if (iter.capture != null && iter.skipStartedAt != -1 && iter.tail - iter.skipStartedAt > iter.captureLimit) {
+            // the kept bytes are handed over instead of growing the buffer, keeping starts again after them
+            iter.capture.write(iter.buf, iter.skipStartedAt, iter.tail - iter.skipStartedAt);
+            iter.skipStartedAt = -1;
+            boolean loaded = loadMore(iter);
+            iter.skipStartedAt = iter.head;
+            return loaded;
+        }
+        if (iter.segments != null) {
+            return loadSegment(iter);
+        }
         if (iter.skipStartedAt != -1) {
             return keepSkippedBytesThenRead(iter);
         }
@@ -273,17 +311,113 @@ class IterImplForStreaming {
         return true;
     }
 
+    // the buffer might be reloaded before resetToMark, keep the bytes the same way skip does.
+    // returns -1 if the mark started keeping bytes, otherwise the offset to the already kept bytes
+    final static int mark(JsonIterator iter) {
+        if (iter.skipStartedAt == -1) {
+            iter.skipStartedAt = iter.head;
+            return -1;
+        }
+        return iter.head - iter.skipStartedAt;
+    }
+
+    final static void resetToMark(JsonIterator iter, int mark) {
+        if (mark == -1) {
+            iter.head = iter.skipStartedAt;
+            iter.skipStartedAt = -1;
+        } else {
+            iter.head = iter.skipStartedAt + mark;
+        }
+    }
+
+    final static int peekQuotedLiteral(JsonIterator iter) throws IOException {
+        int mark = mark(iter);
+        try {
+            iter.head++; // opening quote
+            long packed = 0;
+            for (int length = 0; length <= QuotedLiteral.MAX_LENGTH; length++) {
+                if (iter.head == iter.tail && !loadMore(iter)) {
+                    return QuotedLiteral.STRING;
+                }
+                byte c = iter.buf[iter.head++];
+                if (c == '"') {
+                    return QuotedLiteral.classify(packed, length);
+                }
+                packed = QuotedLiteral.pack(packed, c);
+            }
+            return QuotedLiteral.STRING;
+        } finally {
+            resetToMark(iter, mark);
+        }
+    }
+
+    // the next segment is parsed where it is, only bytes kept by a skip are copied in front of it
+    private static boolean loadSegment(JsonIterator iter) throws IOException {
+        Slice segment = nextSegment(iter);
+        if (segment == null) {
+            return false;
+        }
+        if (iter.skipStartedAt == -1) {
+            iter.buf = segment.data();
+            iter.head = segment.head();
+            iter.tail = segment.tail();
+            return true;
+        }
+        int kept = iter.tail - iter.skipStartedAt;
+        byte[] joined = iter.joinedSegments;
+        if (joined == null || joined.length < kept + segment.len()) {
+            // a skip spanning many segments should not copy the kept bytes for each of them
+            joined = new byte[Math.max(kept + segment.len(), kept * 2)];
+        }
+        System.arraycopy(iter.buf, iter.skipStartedAt, joined, 0, kept);
+        System.arraycopy(segment.data(), segment.head(), joined, kept, segment.len());
+        iter.joinedSegments = joined;
+        iter.buf = joined;
+        iter.skipStartedAt = 0;
+        iter.head = kept;
+        iter.tail = kept + segment.len();
+        return true;
+    }
+
+    // the given segments, then those read from the input stream, each into a new array that is never reused,
+    // so that lazy Any read in memory can keep referring to it
+    private static Slice nextSegment(JsonIterator iter) throws IOException {
+        Slice[] segments = iter.segments;
+        while (iter.nextSegment < segments.length) {
+            Slice segment = segments[iter.nextSegment++];
+            if (segment.len() != 0) {
+                return segment;
+            }
+        }
+        if (iter.in == null) {
+            return null;
+        }
+        byte[] data = new byte[iter.segmentSize];
+        int n = 0;
+        while (n < data.length) {
+            int read = iter.in.read(data, n, data.length - n);
+            if (read < 1) {
+                if (read == -1) {
+                    break;
+                }
+                throw iter.reportError("loadMore", "read from input stream returned " + read);
+            }
+            n += read;
+        }
+        return n == 0 ? null : new Slice(data, 0, n);
+    }
+
     private static boolean keepSkippedBytesThenRead(JsonIterator iter) throws IOException {
         int n;
-        int offset;
-        if (iter.skipStartedAt == 0 || iter.skipStartedAt < iter.tail / 2) {
+        int offset = iter.tail - iter.skipStartedAt;
+        // grow by how much is kept, not by where it starts: a stream returning short reads
+        // would otherwise double the buffer on every read
+        if (offset > iter.buf.length / 2) {
             byte[] newBuf = new byte[iter.buf.length * 2];
-            offset = iter.tail - iter.skipStartedAt;
             System.arraycopy(iter.buf, iter.skipStartedAt, newBuf, 0, offset);
             iter.buf = newBuf;
             n = iter.in.read(iter.buf, offset, iter.buf.length - offset);
         } else {
-            offset = iter.tail - iter.skipStartedAt;
             System.arraycopy(iter.buf, iter.skipStartedAt, iter.buf, 0, offset);
             n = iter.in.read(iter.buf, offset, iter.buf.length - offset);
         }
@@ -314,9 +448,17 @@ class IterImplForStreaming {
         // TODO: avoid small memory allocation
         iter.skipStartedAt = iter.head;
         byte c = nextToken(iter);
+        if (c == '(') {
+            iter.unreadByte();
+            readTypeAnnotation(iter);
+            return readAnnotatedAny(iter);
+        }
         switch (c) {
             case '"':
-                skipString(iter);
+                Any spilled = skipOrSpill(iter, c, false);
+                if (spilled != null) {
+                    return spilled;
+                }
                 byte[] copied = copySkippedBytes(iter);
                 return Any.lazyString(copied, 0, copied.length);
             case 't':
@@ -332,11 +474,17 @@ class IterImplForStreaming {
                 iter.skipStartedAt = -1;
                 return Any.wrap((Object) null);
             case '[':
-                skipArray(iter);
+                spilled = skipOrSpill(iter, c, false);
+                if (spilled != null) {
+                    return spilled;
+                }
                 copied = copySkippedBytes(iter);
                 return Any.lazyArray(copied, 0, copied.length);
             case '{':
-                skipObject(iter);
+                spilled = skipOrSpill(iter, c, false);
+                if (spilled != null) {
+                    return spilled;
+                }
                 copied = copySkippedBytes(iter);
                 return Any.lazyObject(copied, 0, copied.length);
             default:
@@ -350,6 +498,101 @@ class IterImplForStreaming {
         }
     }
 
+    private static Any readAnnotatedAny(JsonIterator iter) throws IOException {
+        // the annotation is kept in the skipped bytes, value starts at the offset
+        int start = iter.head - iter.skipStartedAt;
+        byte c = nextToken(iter);
+        byte[] copied;
+        switch (c) {
+            case '"':
+                iter.unreadByte();
+                ValueType literal = QuotedLiteral.valueType(peekQuotedLiteral(iter));
+                iter.head++;
+                if (literal != ValueType.STRING) {
+                    skipString(iter);
+                } else {
+                    Any spilled = skipOrSpill(iter, c, true);
+                    if (spilled != null) {
+                        return spilled;
+                    }
+                }
+                copied = copySkippedBytes(iter);
+                if (literal == ValueType.NUMBER) {
+                    return Any.lazyDouble(copied, 0, start, copied.length);
+                }
+                if (literal != ValueType.STRING) {
+                    return Any.lazyLiteral(copied, 0, start, copied.length);
+                }
+                return Any.lazyString(copied, 0, start, copied.length);
+            case 't':
+                skipFixedBytes(iter, 3);
+                copied = copySkippedBytes(iter);
+                return Any.lazyLiteral(copied, 0, start, copied.length);
+            case 'f':
+                skipFixedBytes(iter, 4);
+                copied = copySkippedBytes(iter);
+                return Any.lazyLiteral(copied, 0, start, copied.length);
+            case 'n':
+                skipFixedBytes(iter, 3);
+                copied = copySkippedBytes(iter);
+                return Any.lazyLiteral(copied, 0, start, copied.length);
+            case '[':
+                Any spilled = skipOrSpill(iter, c, true);
+                if (spilled != null) {
+                    return spilled;
+                }
+                copied = copySkippedBytes(iter);
+                return Any.lazyArray(copied, 0, start, copied.length);
+            case '{':
+                spilled = skipOrSpill(iter, c, true);
+                if (spilled != null) {
+                    return spilled;
+                }
+                copied = copySkippedBytes(iter);
+                return Any.lazyObject(copied, 0, start, copied.length);
+            default:
+                if (skipNumber(iter)) {
+                    copied = copySkippedBytes(iter);
+                    return Any.lazyDouble(copied, 0, start, copied.length);
+                } else {
+                    copied = copySkippedBytes(iter);
+                    return Any.lazyLong(copied, 0, start, copied.length);
+                }
+        }
+    }
+
+    // skips the string, array or object started by c. Above the spill threshold of the iterator, the bytes kept
+    // since skipStartedAt are written to a file and the spilled Any is returned, otherwise null
+    private static Any skipOrSpill(JsonIterator iter, byte c, boolean annotated) throws IOException {
+        SpillFile spillFile = iter.spillFile;
+        if (spillFile != null) {
+            iter.capture = spillFile;
+            iter.captureLimit = iter.spillThreshold;
+        }
+        boolean skipped = false;
+        try {
+            if (c == '"') {
+                skipString(iter);
+            } else if (c == '[') {
+                skipArray(iter);
+            } else {
+                skipObject(iter);
+            }
+            skipped = true;
+        } finally {
+            iter.capture = null;
+            if (!skipped && spillFile != null) {
+                spillFile.discard();
+            }
+        }
+        if (spillFile == null || !spillFile.isStarted()) {
+            return null;
+        }
+        spillFile.write(iter.buf, iter.skipStartedAt, iter.head - iter.skipStartedAt);
+        iter.skipStartedAt = -1;
+        return Any.spilled(spillFile.finish(), annotated, JsonIterator.valueTypes[c], iter.spillThreshold);
+    }
+
     private static byte[] copySkippedBytes(JsonIterator iter) {
         int start = iter.skipStartedAt;
         iter.skipStartedAt = -1;
@@ -361,7 +604,8 @@ class IterImplForStreaming {
 
     public static void skipFixedBytes(JsonIterator iter, int n) throws IOException {
         iter.head += n;
-        if (iter.head >= iter.tail) {
+        // the bytes might span more than the next buffer
+        while (iter.head >= iter.tail) {
             int more = iter.head - iter.tail;
             if (!loadMore(iter)) {
                 if (more == 0) {
@@ -492,6 +736,19 @@ class IterImplForStreaming {
         long multmin = -922337203685477580L; // limit / 10
         for (; ; ) {
             for (int i = iter.head; i < iter.tail; i++) {
+                if (i + 8 <= iter.tail) {
+                    long word = IterImplScan.loadLong(iter.buf, i);
+                    int n = IterImplNumber.countDigits(word);
+                    if (n > 0 && value >= IterImplNumber.SWAR_LIMITS[n]) {
+                        value = value * IterImplNumber.POW10[n] - IterImplNumber.parseDigits(word, n);
+                        if (n < 8) {
+                            iter.head = i + n;
+                            return value;
+                        }
+                        i += 7;
+                        continue;
+                    }
+                }
                 int ind = IterImplNumber.intDigits[iter.buf[i]];
                 if (ind == IterImplNumber.INVALID_CHAR_FOR_NUMBER) {
                     iter.head = i;
@@ -505,7 +762,7 @@ class IterImplForStreaming {
                     throw iter.reportError("readLongSlowPath", "value is too large for long");
                 }
             }
-            if (!IterImpl.loadMore(iter)) {
+            if (!loadMore(iter)) {
                 iter.head = iter.tail;
                 return value;
             }
@@ -517,6 +774,23 @@ class IterImplForStreaming {
         int multmin = -214748364; // limit / 10
         for (; ; ) {
             for (int i = iter.head; i < iter.tail; i++) {
+                if (i + 8 <= iter.tail) {
+                    long word = IterImplScan.loadLong(iter.buf, i);
+                    int n = IterImplNumber.countDigits(word);
+                    if (n > 0) {
+                        long longValue = value * IterImplNumber.POW10[n] - IterImplNumber.parseDigits(word, n);
+                        if (longValue < Integer.MIN_VALUE) {
+                            throw iter.reportError("readIntSlowPath", "value is too large for int");
+                        }
+                        value = (int) longValue;
+                        if (n < 8) {
+                            iter.head = i + n;
+                            return value;
+                        }
+                        i += 7;
+                        continue;
+                    }
+                }
                 int ind = IterImplNumber.intDigits[iter.buf[i]];
                 if (ind == IterImplNumber.INVALID_CHAR_FOR_NUMBER) {
                     iter.head = i;
@@ -530,7 +804,7 @@ class IterImplForStreaming {
                     throw iter.reportError("readIntSlowPath", "value is too large for int");
                 }
             }
-            if (!IterImpl.loadMore(iter)) {
+            if (!loadMore(iter)) {
                 iter.head = iter.tail;
                 return value;
             }
@@ -538,6 +812,14 @@ class IterImplForStreaming {
     }
 
     public static final double readDoubleSlowPath(final JsonIterator iter) throws IOException {
+        return readNumberSlowPath(iter, false);
+    }
+
+    static final float readFloatSlowPath(final JsonIterator iter) throws IOException {
+        return (float) readNumberSlowPath(iter, true);
+    }
+
+    private static double readNumberSlowPath(final JsonIterator iter, boolean singlePrecision) throws IOException {
         try {
             numberChars numberChars = readNumber(iter);
             if (numberChars.charsLength == 0 && iter.whatIsNext() == ValueType.STRING) {
@@ -550,7 +832,10 @@ class IterImplForStreaming {
                 }
                 throw iter.reportError("readDoubleSlowPath", "expect number but found string: " + possibleInf);
             }
-            return Double.valueOf(new String(numberChars.chars, 0, numberChars.charsLength));
+            if (singlePrecision) {
+                return DoubleParser.parseFloat(numberChars.chars, 0, numberChars.charsLength);
+            }
+            return DoubleParser.parseDouble(numberChars.chars, 0, numberChars.charsLength);
         } catch (NumberFormatException e) {
             throw iter.reportError("readDoubleSlowPath", e.toString());
         }
@@ -602,7 +887,7 @@ class IterImplForStreaming {
                         return numberChars;
                 }
             }
-            if (!IterImpl.loadMore(iter)) {
+            if (!loadMore(iter)) {
                 iter.head = iter.tail;
                 numberChars numberChars = new numberChars();
                 numberChars.chars = iter.reusableChars;
@@ -613,10 +898,75 @@ class IterImplForStreaming {
         }
     }
 
+    // the number might continue after the buffer, only classify it and let the read methods convert it
+    static final TysonType scanNumber(final JsonIterator iter) throws IOException {
+        TysonType type = TysonType.INTEGER;
+        boolean digitFound = false;
+        boolean first = true;
+        int mark = mark(iter);
+        try {
+            for (; ; ) {
+                for (int i = iter.head; i < iter.tail; i++) {
+                    byte c = iter.buf[i];
+                    if (!digitFound) {
+                        // only the sign can come before the first digit
+                        if (c >= '0' && c <= '9') {
+                            digitFound = true;
+                        } else if (!first || c != '-') {
+                            iter.head = i;
+                            throw iter.reportError("numberType", "expect digit after -");
+                        }
+                        first = false;
+                    }
+                    switch (c) {
+                        case '.':
+                            if (type == TysonType.INTEGER) {
+                                type = TysonType.DECIMAL;
+                            }
+                            break;
+                        case 'e':
+                        case 'E':
+                            type = TysonType.DOUBLE;
+                            break;
+                        case '-':
+                        case '+':
+                        case '0':
+                        case '1':
+                        case '2':
+                        case '3':
+                        case '4':
+                        case '5':
+                        case '6':
+                        case '7':
+                        case '8':
+                        case '9':
+                            break;
+                        default:
+                            return type;
+                    }
+                }
+                iter.head = iter.tail;
+                if (!loadMore(iter)) {
+                    if (!digitFound) {
+                        throw iter.reportError("numberType", "expect digit after -");
+                    }
+                    return type;
+                }
+            }
+        } finally {
+            resetToMark(iter, mark);
+            iter.scannedNumberEnd = -1;
+        }
+    }
+
     static final double readDouble(final JsonIterator iter) throws IOException {
         return readDoubleSlowPath(iter);
     }
 
+    static final float readFloat(final JsonIterator iter) throws IOException {
+        return readFloatSlowPath(iter);
+    }
+
     static final long readLong(final JsonIterator iter, final byte c) throws IOException {
         long ind = IterImplNumber.intDigits[c];
         if (ind == 0) {
@@ -641,18 +991,14 @@ class IterImplForStreaming {
         return IterImplForStreaming.readIntSlowPath(iter, ind);
     }
 
+    // also called for in memory iterators: the bytes after tail, if any, are not part of the input
     static void assertNotLeadingZero(JsonIterator iter) throws IOException {
-        try {
-            byte nextByte = IterImpl.readByte(iter);
-            iter.unreadByte();
-            int ind2 = IterImplNumber.intDigits[nextByte];
-            if (ind2 == IterImplNumber.INVALID_CHAR_FOR_NUMBER) {
-                return;
-            }
-            throw iter.reportError("assertNotLeadingZero", "leading zero is invalid");
-        } catch (ArrayIndexOutOfBoundsException e) {
-            iter.head = iter.tail;
+        if (iter.head == iter.tail && !IterImpl.loadMore(iter)) {
             return;
         }
+        byte nextByte = iter.buf[iter.head];
+        if (nextByte >= '0' && nextByte <= '9') {
+            throw iter.reportError("assertNotLeadingZero", "leading zero is invalid");
+        }
     }
 }
@@ -45,7 +45,13 @@ class IterImplNumber {
             1000000000, 10000000000L, 100000000000L, 1000000000000L,
             10000000000000L, 100000000000000L, 1000000000000000L};
 
+    // a value accumulated as negative must not be less than SWAR_LIMITS[n] to take n more digits at once
+    static final long SWAR_LIMITS[] = new long[9];
+
     static {
+        for (int n = 1; n < SWAR_LIMITS.length; n++) {
+            SWAR_LIMITS[n] = (Long.MIN_VALUE + POW10[n] - 1) / POW10[n];
+        }
         for (int i = 0; i < floatDigits.length; i++) {
             floatDigits[i] = INVALID_CHAR_FOR_NUMBER;
             intDigits[i] = INVALID_CHAR_FOR_NUMBER;
@@ -61,21 +67,100 @@ class IterImplNumber {
         floatDigits['.'] = DOT_IN_NUMBER;
     }
 
+    // SWAR, word holds 8 bytes loaded by IterImplScan.loadLong
+    // returns how many of them are digits, counting from the first byte
+    static int countDigits(long word) {
+        // a digit is 0x30 ~ 0x39: its high nibble is 3 and stays 3 after adding 6.
+        // carries only go from a non digit byte to the bytes after it, which are not counted
+        long nonDigits = ((word & 0xF0F0F0F0F0F0F0F0L) | (((word + 0x0606060606060606L) & 0xF0F0F0F0F0F0F0F0L) >>> 4))
+                ^ 0x3333333333333333L;
+        return Long.numberOfTrailingZeros(nonDigits) >>> 3;
+    }
+
+    // value of the first n (1 ~ 8) digits of the word, pairs of digits are combined in three multiplications
+    static long parseDigits(long word, int n) {
+        word <<= (8 - n) << 3; // the dropped bytes come back as leading zeros
+        word = ((word & 0x0F0F0F0F0F0F0F0FL) * 2561) >>> 8;
+        word = ((word & 0x00FF00FF00FF00FFL) * 6553601) >>> 16;
+        return ((word & 0x0000FFFF0000FFFFL) * 42949672960001L) >>> 32;
+    }
+
     public static final double readDouble(final JsonIterator iter) throws IOException {
+        if (iter.scannedNumberAt == iter.head && iter.scannedNumberEnd != -1) {
+            iter.head = iter.scannedNumberEnd;
+            return iter.scannedNumberValue;
+        }
         final byte c = IterImpl.nextToken(iter);
         if (c == '-') {
             return -IterImpl.readDouble(iter);
+        } else if (c == '"') {
+            iter.unreadByte();
+            return readQuotedDouble(iter);
         } else {
             iter.unreadByte();
             return IterImpl.readDouble(iter);
         }
     }
 
+    private static double readQuotedDouble(final JsonIterator iter) throws IOException {
+        double value;
+        switch (IterImpl.peekQuotedLiteral(iter)) {
+            case QuotedLiteral.NAN:
+                value = Double.NaN;
+                break;
+            case QuotedLiteral.POSITIVE_INFINITY:
+                value = Double.POSITIVE_INFINITY;
+                break;
+            case QuotedLiteral.NEGATIVE_INFINITY:
+                value = Double.NEGATIVE_INFINITY;
+                break;
+            default:
+                return readQuotedDoubleSlowPath(iter);
+        }
+        QuotedLiteral.skip(iter);
+        return value;
+    }
+
+    // spelling of Double.toString() and javascript
+    private static double readQuotedDoubleSlowPath(final JsonIterator iter) throws IOException {
+        String str = iter.readString();
+        if ("infinity".equalsIgnoreCase(str) || "+infinity".equalsIgnoreCase(str)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if ("-infinity".equalsIgnoreCase(str)) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if ("nan".equalsIgnoreCase(str)) {
+            return Double.NaN;
+        }
+        throw iter.reportError("readDouble", "expect number, \"NaN\", \"INF\", \"+INF\" or \"-INF\", found: " + str);
+    }
+
     public static final float readFloat(final JsonIterator iter) throws IOException {
-        return (float) IterImplNumber.readDouble(iter);
+        if (iter.scannedNumberAt == iter.head && iter.scannedNumberEnd != -1) {
+            iter.head = iter.scannedNumberEnd;
+            return iter.scannedNumberValue;
+        }
+        final byte c = IterImpl.nextToken(iter);
+        if (c == '-') {
+            return -IterImpl.readFloat(iter);
+        } else if (c == '"') {
+            iter.unreadByte();
+            return (float) readQuotedDouble(iter);
+        } else {
+            iter.unreadByte();
+            return IterImpl.readFloat(iter);
+        }
     }
 
     public static final int readInt(final JsonIterator iter) throws IOException {
+        if (iter.scannedNumberAt == iter.head && iter.scannedNumberEnd != -1) {
+            long value = iter.scannedNumberValue;
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                iter.head = iter.scannedNumberEnd;
+                return (int) value;
+            }
+        }
         byte c = IterImpl.nextToken(iter);
         if (c == '-') {
             return IterImpl.readInt(iter, IterImpl.readByte(iter));
@@ -89,6 +174,10 @@ class IterImplNumber {
     }
 
     public static final long readLong(JsonIterator iter) throws IOException {
+        if (iter.scannedNumberAt == iter.head && iter.scannedNumberEnd != -1) {
+            iter.head = iter.scannedNumberEnd;
+            return iter.scannedNumberValue;
+        }
         byte c = IterImpl.nextToken(iter);
         if (c == '-') {
             c = IterImpl.readByte(iter);
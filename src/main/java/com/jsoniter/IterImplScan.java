@@ -0,0 +1,53 @@
+package com.jsoniter;
+
+// finds the next byte the skip and string scanners stop at.
+// this is the baseline, one byte at a time, src/main/java17 has the word at a time version of the multi-release jar
+final class IterImplScan {
+
+    private IterImplScan() {
+    }
+
+    // index of the first " in buf[from, to), -1 if none
+    static int findQuote(byte[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf[i] == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // index of the first " or \ in buf[from, to), -1 if none
+    static int findQuoteOrBackslash(byte[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte c = buf[i];
+            if (c == '"' || c == '\\') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // index of the first ", open or close in buf[from, to), -1 if none
+    static int findStructural(byte[] buf, int from, int to, byte open, byte close) {
+        for (int i = from; i < to; i++) {
+            byte c = buf[i];
+            if (c == '"' || c == open || c == close) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // buf[i, i + 8) as a long, buf[i] in the lowest byte
+    static long loadLong(byte[] buf, int i) {
+        return (buf[i] & 0xFFL)
+                | (buf[i + 1] & 0xFFL) << 8
+                | (buf[i + 2] & 0xFFL) << 16
+                | (buf[i + 3] & 0xFFL) << 24
+                | (buf[i + 4] & 0xFFL) << 32
+                | (buf[i + 5] & 0xFFL) << 40
+                | (buf[i + 6] & 0xFFL) << 48
+                | (buf[i + 7] & 0xFFL) << 56;
+    }
+}
@@ -48,40 +48,46 @@ class IterImplSkip {
             case '{':
                 IterImpl.skipObject(iter);
                 return;
+            case '(':
+                skipTypeAnnotation(iter);
+                skip(iter);
+                return;
             default:
                 throw iter.reportError("IterImplSkip", "do not know how to skip: " + c);
         }
     }
 
+    // ("type") in front of a value, skipped like a string without resolving the type.
+    // annotations nested in arrays and objects need no special care, skipArray and skipObject only track strings and brackets
+    private static void skipTypeAnnotation(JsonIterator iter) throws IOException {
+        if (IterImpl.nextToken(iter) != '"') {
+            throw iter.reportError("skipTypeAnnotation", "expect \" after (");
+        }
+        IterImpl.skipString(iter);
+        if (IterImpl.nextToken(iter) != ')') {
+            throw iter.reportError("skipTypeAnnotation", "expect )");
+        }
+    }
+
     // adapted from: https://github.com/buger/jsonparser/blob/master/parser.go
     // Tries to find the end of string
     // Support if string contains escaped quote symbols.
     final static int findStringEnd(JsonIterator iter) {
-        boolean escaped = false;
-        for (int i = iter.head; i < iter.tail; i++) {
-            byte c = iter.buf[i];
-            if (c == '"') {
-                if (!escaped) {
+        for (int i = iter.head; (i = IterImplScan.findQuote(iter.buf, i, iter.tail)) != -1; i++) {
+            int j = i - 1;
+            for (; ; ) {
+                if (j < iter.head || iter.buf[j] != '\\') {
+                    // even number of backslashes
+                    // either end of buffer, or " found
                     return i + 1;
-                } else {
-                    int j = i - 1;
-                    for (; ; ) {
-                        if (j < iter.head || iter.buf[j] != '\\') {
-                            // even number of backslashes
-                            // either end of buffer, or " found
-                            return i + 1;
-                        }
-                        j--;
-                        if (j < iter.head || iter.buf[j] != '\\') {
-                            // odd number of backslashes
-                            // it is \" or \\\"
-                            break;
-                        }
-                        j--;
-                    }
                 }
-            } else if (c == '\\') {
-                escaped = true;
+                j--;
+                if (j < iter.head || iter.buf[j] != '\\') {
+                    // odd number of backslashes
+                    // it is \" or \\\"
+                    break;
+                }
+                j--;
             }
         }
         return -1;
@@ -104,14 +104,13 @@ class IterImplString {
 
     // slice does not allow escape
     final static int findSliceEnd(JsonIterator iter) {
-        for (int i = iter.head; i < iter.tail; i++) {
-            byte c = iter.buf[i];
-            if (c == '"') {
-                return i + 1;
-            } else if (c == '\\') {
-                throw iter.reportError("findSliceEnd", "slice does not support escape char");
-            }
+        int i = IterImplScan.findQuoteOrBackslash(iter.buf, iter.head, iter.tail);
+        if (i == -1) {
+            return -1;
+        }
+        if (iter.buf[i] == '\\') {
+            throw iter.reportError("findSliceEnd", "slice does not support escape char");
         }
-        return -1;
+        return i + 1;
     }
 }
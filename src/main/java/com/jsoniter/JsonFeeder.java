@@ -0,0 +1,362 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.TypeLiteral;
+
+import java.io.IOException;
+
+/**
+ * Parser fed with the bytes of the input as they arrive, for an event loop that can not block on a read.
+ * The fed bytes are scanned once for the end of each top level value, the scan stops at the end of the
+ * bytes and resumes with the next feed, its state is kept in fields instead of on the stack.
+ * A complete value is read in memory at full speed. Values are separated by white spaces, as in JSON Lines,
+ * and can be annotated. The bytes fed are never moved nor overwritten: lazy Any stay valid.
+ * <pre>
+ * feeder.feed(chunk, 0, n);
+ * while (feeder.hasNext()) {
+ *     handle(feeder.next(Order.class));
+ * }
+ * </pre>
+ * When the input is one large array, for example the body of a request, {@link #readArrayElements()} returns
+ * its elements one at a time as each one is complete, so that parsing goes on while the rest is received.
+ */
+public final class JsonFeeder {
+
+    // what the scan is in at the end of the bytes fed so far
+    private static final int BETWEEN_VALUES = 0;
+    private static final int ANNOTATION = 1;
+    private static final int CONTAINER = 2;
+    private static final int STRING = 3;
+    private static final int LITERAL = 4; // number, true, false or null: ends with the next white space
+    // where the array is when its elements are returned
+    private static final int BEFORE_ARRAY = 0;
+    private static final int IN_ARRAY = 1;
+    private static final int AFTER_ARRAY = 2;
+
+    private final JsonIterator iter = new JsonIterator();
+    private final int bufSize;
+    private byte[] buf;
+    private int head; // first byte not returned as a value yet
+    private int tail;
+    private int scanned;
+    private int state = BETWEEN_VALUES;
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private int valueStart = -1; // including the annotation
+    private int valueEnd = -1; // found by the scan, not returned yet
+    private boolean ended;
+    private boolean elements;
+    private int arrayState = BEFORE_ARRAY;
+    private boolean afterElement; // an element was returned, a , or ] is expected
+    private boolean afterComma; // an element is expected
+    private TysonType arrayType;
+
+    public JsonFeeder() {
+        this(4096);
+    }
+
+    public JsonFeeder(int bufSize) {
+        this.bufSize = bufSize;
+        this.buf = new byte[bufSize];
+    }
+
+    /**
+     * the input is one array, possibly annotated: its elements are the values returned, instead of the whole array.
+     * Must be called before the first feed
+     */
+    public void readArrayElements() {
+        if (tail != 0) {
+            throw new JsonException("readArrayElements after the first feed");
+        }
+        elements = true;
+    }
+
+    /**
+     * @return the annotation of the array whose elements are returned, null if none or not read yet
+     */
+    public TysonType arrayType() {
+        return arrayType;
+    }
+
+    public void feed(byte[] bytes) {
+        feed(bytes, 0, bytes.length);
+    }
+
+    public void feed(byte[] bytes, int offset, int length) {
+        if (ended) {
+            throw new JsonException("feed after end of input");
+        }
+        if (tail + length > buf.length) {
+            // the bytes not returned yet are copied to a new buffer, the old one is left as it is
+            int kept = tail - head;
+            byte[] newBuf = new byte[Math.max(bufSize, (kept + length) * 2)];
+            System.arraycopy(buf, head, newBuf, 0, kept);
+            buf = newBuf;
+            scanned -= head;
+            if (valueStart != -1) {
+                valueStart -= head;
+            }
+            if (valueEnd != -1) {
+                valueEnd -= head;
+            }
+            tail = kept;
+            head = 0;
+        }
+        System.arraycopy(bytes, offset, buf, tail, length);
+        tail += length;
+    }
+
+    /**
+     * no more bytes will be fed, a number, true, false or null at the end is complete
+     */
+    public void endOfInput() {
+        ended = true;
+    }
+
+    /**
+     * @return true if a complete value was fed, false if more bytes are needed
+     * @throws JsonException if the input ended in the middle of a value
+     */
+    public boolean hasNext() {
+        if (valueEnd != -1 || scan()) {
+            return true;
+        }
+        if (!ended) {
+            return false;
+        }
+        if (elements && arrayState != AFTER_ARRAY && (arrayState == IN_ARRAY || valueStart != -1)) {
+            iter.reset(buf, head, tail);
+            throw iter.reportError("JsonFeeder", "incomplete array at end of input");
+        }
+        if (state == LITERAL) {
+            return complete(tail);
+        }
+        if (valueStart != -1) {
+            iter.reset(buf, valueStart, tail);
+            throw iter.reportError("JsonFeeder", "incomplete value at end of input");
+        }
+        return false;
+    }
+
+    /**
+     * @return the iterator over the next complete value, reused by the following call
+     */
+    public JsonIterator next() {
+        if (!hasNext()) {
+            throw new JsonException("no complete value, feed more bytes");
+        }
+        iter.reset(buf, valueStart, valueEnd);
+        head = valueEnd;
+        valueStart = -1;
+        valueEnd = -1;
+        return iter;
+    }
+
+    public Any nextAny() {
+        JsonIterator iter = next();
+        try {
+            return checkTrailing(iter, iter.readAny());
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    public <T> T next(Class<T> clazz) {
+        JsonIterator iter = next();
+        try {
+            return checkTrailing(iter, iter.read(clazz));
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    public <T> T next(TypeLiteral<T> typeLiteral) {
+        JsonIterator iter = next();
+        try {
+            return checkTrailing(iter, iter.read(typeLiteral));
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    private static <T> T checkTrailing(JsonIterator iter, T value) {
+        if (iter.head != iter.tail) {
+            throw iter.reportError("JsonFeeder", "trailing garbage found");
+        }
+        return value;
+    }
+
+    // resumes where the previous scan stopped, true when the end of a value is found
+    private boolean scan() {
+        for (int i = scanned; i < tail; i++) {
+            byte c = buf[i];
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                    if (state == STRING) {
+                        return complete(i + 1);
+                    }
+                }
+                continue;
+            }
+            switch (state) {
+                case BETWEEN_VALUES:
+                    if (elements && scanArray(i, c)) {
+                        continue;
+                    }
+                    switch (c) {
+                        case ' ':
+                        case '\n':
+                        case '\t':
+                        case '\r':
+                            continue;
+                        case '(':
+                            start(i, ANNOTATION);
+                            continue;
+                        case '"':
+                            start(i, STRING);
+                            inString = true;
+                            continue;
+                        case '[':
+                        case '{':
+                            start(i, CONTAINER);
+                            depth = 1;
+                            continue;
+                        default:
+                            start(i, LITERAL);
+                            continue;
+                    }
+                case ANNOTATION:
+                    if (c == '"') {
+                        inString = true;
+                    } else if (c == ')') {
+                        // the annotated value follows, it starts with the annotation
+                        state = BETWEEN_VALUES;
+                        if (elements && arrayState == BEFORE_ARRAY) {
+                            readArrayType(i + 1);
+                        }
+                    }
+                    continue;
+                case CONTAINER:
+                    switch (c) {
+                        case '"':
+                            inString = true;
+                            break;
+                        case '[':
+                        case '{':
+                            depth++;
+                            break;
+                        case ']':
+                        case '}':
+                            if (--depth == 0) {
+                                return complete(i + 1);
+                            }
+                            break;
+                    }
+                    continue;
+                case LITERAL:
+                    switch (c) {
+                        case ' ':
+                        case '\n':
+                        case '\t':
+                        case '\r':
+                        case '[':
+                        case '{':
+                        case '"':
+                        case '(':
+                            return complete(i);
+                        case ',':
+                        case ']':
+                            if (elements) {
+                                return complete(i);
+                            }
+                    }
+            }
+        }
+        scanned = tail;
+        return false;
+    }
+
+    // the bytes of the array around its elements, true if c is one of them
+    private boolean scanArray(int i, byte c) {
+        switch (c) {
+            case ' ':
+            case '\n':
+            case '\t':
+            case '\r':
+                return false;
+        }
+        if (arrayState == BEFORE_ARRAY) {
+            if (c == '(' && valueStart == -1) {
+                return false;
+            }
+            if (c != '[') {
+                throw error(i, "expect [");
+            }
+            arrayState = IN_ARRAY;
+        } else if (arrayState == AFTER_ARRAY) {
+            throw error(i, "trailing garbage found");
+        } else if (valueStart != -1) {
+            // after the annotation of an element
+            if (c == ',' || c == ']') {
+                throw error(i, "expect value");
+            }
+            return false;
+        } else if (c == ',') {
+            if (!afterElement) {
+                throw error(i, "expect value");
+            }
+            afterElement = false;
+            afterComma = true;
+        } else if (c == ']') {
+            if (afterComma) {
+                throw error(i, "expect value");
+            }
+            arrayState = AFTER_ARRAY;
+        } else if (afterElement) {
+            throw error(i, "expect , or ]");
+        } else {
+            afterComma = false;
+            return false;
+        }
+        // consumed, the bytes before are not kept anymore
+        head = i + 1;
+        valueStart = -1;
+        return true;
+    }
+
+    private void readArrayType(int end) {
+        iter.reset(buf, valueStart, end);
+        try {
+            arrayType = iter.readTysonType();
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    private JsonException error(int i, String message) {
+        iter.reset(buf, i, tail);
+        return iter.reportError("JsonFeeder", message);
+    }
+
+    private void start(int i, int state) {
+        if (valueStart == -1) {
+            valueStart = i;
+        }
+        this.state = state;
+    }
+
+    private boolean complete(int end) {
+        valueEnd = end;
+        scanned = end;
+        state = BETWEEN_VALUES;
+        afterElement = elements;
+        return true;
+    }
+}
@@ -4,25 +4,33 @@ import com.jsoniter.any.Any;
 import com.jsoniter.spi.*;
 
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 public class JsonIterator implements Closeable {
 
     public Config configCache;
     private static boolean isStreamingEnabled = false;
+    private static final byte[] EMPTY_BUF = new byte[0];
     final static ValueType[] valueTypes = new ValueType[256];
 	final static TypeDeclaration[] typeDeclarations = new TypeDeclaration[256];
 
     InputStream in;
+    boolean streaming; // reads from in or segments: IterImpl hands over to IterImplForStreaming
     byte[] buf;
     int head;
     int tail;
@@ -32,6 +40,23 @@ public class JsonIterator implements Closeable {
     final Slice reusableSlice = new Slice(null, 0, 0);
     char[] reusableChars = new char[32];
     Object existingObject = null; // the object should be bind to next
+    TysonType lastTysonType = null; // type annotation consumed by the last whatIsNext
+    final Slice typeAnnotation = new Slice(null, 0, 0); // bytes of the last type name, without quotes
+    int typeAnnotatedValueAt = -1; // head of the value following the last type annotation
+    int scannedNumberAt = -1; // position of the number classified by the last scan
+    TysonType scannedNumberType = null;
+    int scannedNumberEnd = -1; // end of the scanned integer, -1 if its value is not cached
+    long scannedNumberValue;
+    StructuralIndex structuralIndex = null; // spans of the containers of buf, see parseIndexed
+    int structuralCursor = 0; // index of the container expected to be skipped next
+    Slice[] segments = null; // input parsed one segment after the other, see parse(Slice[])
+    int nextSegment;
+    int segmentSize; // once the segments are parsed, more are read from in, segmentSize bytes each
+    byte[] joinedSegments = null; // reused to keep skipped bytes contiguous with the next segment
+    SpillFile spillFile = null; // lazy Any above spillThreshold bytes are written there, see spillLazyAny
+    int spillThreshold;
+    OutputStream capture = null; // takes the bytes kept since skipStartedAt instead of keeping more than captureLimit
+    int captureLimit;
 
     static {
         for (int i = 0; i < valueTypes.length; i++) {
@@ -60,6 +85,7 @@ public class JsonIterator implements Closeable {
 
     private JsonIterator(InputStream in, byte[] buf, int head, int tail) {
         this.in = in;
+        this.streaming = in != null;
         this.buf = buf;
         this.head = head;
         this.tail = tail;
@@ -70,7 +96,6 @@ public class JsonIterator implements Closeable {
     }
 
     public static JsonIterator parse(InputStream in, int bufSize) {
-        enableStreamingSupport();
         return new JsonIterator(in, new byte[bufSize], 0, 0);
     }
 
@@ -90,29 +115,222 @@ public class JsonIterator implements Closeable {
         return new JsonIterator(null, slice.data(), slice.head(), slice.tail());
     }
 
+    /**
+     * Parse chunks received separately, for example network frames, as one input without joining them.
+     * Each segment is parsed where it is: numbers and lazy Any are read in memory from their segment,
+     * only a value reaching the end of a segment is read again in streaming mode and copied.
+     */
+    public static JsonIterator parse(Slice[] segments) {
+        JsonIterator iter = new JsonIterator();
+        iter.reset(segments);
+        return iter;
+    }
+
+    public static JsonIterator parse(byte[][] segments) {
+        Slice[] slices = new Slice[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            slices[i] = new Slice(segments[i], 0, segments[i].length);
+        }
+        return parse(slices);
+    }
+
+    /**
+     * @see #reset(ByteBuffer)
+     */
+    public static JsonIterator parse(ByteBuffer buffer) {
+        JsonIterator iter = new JsonIterator();
+        iter.reset(buffer);
+        return iter;
+    }
+
+    /**
+     * Parse from the position of the channel to the end of the file through a memory mapping.
+     * Up to 1MB, the file is copied from the mapping in one go and parsed in memory.
+     * A larger file is copied 1MB at a time, each window into a new array parsed in memory
+     * like the segments of {@link #parse(Slice[])}: only a value reaching the end of a window is read
+     * again in streaming mode, and lazy Any refer to the window they were read from. The channel is not closed.
+     */
+    public static JsonIterator parse(FileChannel channel) {
+        return parse(channel, MappedFileInputStream.BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufSize a larger file is parsed bufSize bytes at a time,
+     *                copied from mapped windows of the file so that it can be larger than 2GB
+     */
+    public static JsonIterator parse(FileChannel channel, int bufSize) {
+        try {
+            if (channel.size() - channel.position() <= bufSize) {
+                return parse(MappedFileInputStream.readFully(channel));
+            }
+            return parseWindows(new MappedFileInputStream(channel, false, MappedFileInputStream.WINDOW_SIZE), bufSize);
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    /**
+     * @see #parse(FileChannel)
+     */
+    public static JsonIterator parse(File file) {
+        return parse(file, MappedFileInputStream.BUFFER_SIZE);
+    }
+
+    /**
+     * the file is closed when read in memory, otherwise by close()
+     */
+    public static JsonIterator parse(File file, int bufSize) {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            FileChannel channel = raf.getChannel();
+            if (channel.size() <= bufSize) {
+                return parse(MappedFileInputStream.readFully(channel));
+            }
+            JsonIterator iter = parseWindows(new MappedFileInputStream(channel, true, MappedFileInputStream.WINDOW_SIZE), bufSize);
+            // closed by the iterator from now on
+            raf = null;
+            return iter;
+        } catch (IOException e) {
+            throw new JsonException(e);
+        } finally {
+            if (raf != null) {
+                try {
+                    raf.close();
+                } catch (IOException e) {
+                    // read in full or not at all, nothing is lost
+                }
+            }
+        }
+    }
+
+    // the windows are the segments of the input, the first one is read right away
+    private static JsonIterator parseWindows(MappedFileInputStream in, int bufSize) throws IOException {
+        JsonIterator iter = new JsonIterator();
+        iter.reset(new Slice[0]);
+        iter.in = in;
+        iter.segmentSize = bufSize;
+        IterImplForStreaming.loadMore(iter);
+        return iter;
+    }
+
+    /**
+     * index the containers of the input before parsing, so that skip() and readAny() do not scan them,
+     * worth it when large parts of the input are skipped or navigated through lazy Any
+     */
+    public static JsonIterator parseIndexed(byte[] buf) {
+        JsonIterator iter = parse(buf);
+        iter.structuralIndex = StructuralIndex.build(buf);
+        return iter;
+    }
+
+    public static JsonIterator parseIndexed(String str) {
+        return parseIndexed(str.getBytes());
+    }
+
+    /**
+     * In streaming mode, the bytes of a lazy Any larger than the threshold are written to a temporary file
+     * while they are read, instead of growing the buffer, so that memory stays bounded whatever the size
+     * of the value. Navigating the spilled Any goes through the file with the heap use bounded whatever its size,
+     * large elements or fields are read in place from the same file. The spilled Any is Closeable,
+     * closing it deletes the file, which is otherwise deleted once the Any and those navigated from it
+     * are not reachable anymore. skip() keeps no bytes at all.
+     *
+     * @param threshold bytes kept in memory for one lazy Any, -1 to keep all of them
+     */
+    public final void spillLazyAny(int threshold) {
+        this.spillThreshold = threshold;
+        this.spillFile = threshold < 0 ? null : new SpillFile();
+    }
+
     public final void reset(byte[] buf) {
         this.buf = buf;
         this.head = 0;
         this.tail = buf.length;
+        this.structuralIndex = null;
+        this.segments = null;
+        this.streaming = false;
+        this.lastTysonType = null;
+        this.typeAnnotatedValueAt = -1;
+        this.scannedNumberAt = -1;
     }
 
     public final void reset(byte[] buf, int head, int tail) {
         this.buf = buf;
         this.head = head;
         this.tail = tail;
+        this.structuralIndex = null;
+        this.segments = null;
+        this.streaming = false;
+        this.lastTysonType = null;
+        this.typeAnnotatedValueAt = -1;
+        this.scannedNumberAt = -1;
+    }
+
+    /**
+     * @param index built from buf, or null
+     */
+    public final void reset(byte[] buf, int head, int tail, StructuralIndex index) {
+        reset(buf, head, tail);
+        this.structuralIndex = index;
+        this.structuralCursor = 0;
     }
 
     public final void reset(Slice value) {
         this.buf = value.data();
         this.head = value.head();
         this.tail = value.tail();
+        this.structuralIndex = null;
+        this.segments = null;
+        this.streaming = false;
+        this.lastTysonType = null;
+        this.typeAnnotatedValueAt = -1;
+        this.scannedNumberAt = -1;
+    }
+
+    /**
+     * Parse in place the bytes between the position and the limit of a heap buffer, which are left unchanged.
+     * Direct and read only buffers have no array to parse, they are rejected rather than copied:
+     * copying them into an array of the caller, reused from one message to the next, is as fast and allocates less
+     */
+    public final void reset(ByteBuffer buffer) {
+        if (!buffer.hasArray()) {
+            throw new JsonException("only heap buffers are parsed in place, copy a direct or read only buffer into an array");
+        }
+        reset(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.arrayOffset() + buffer.limit());
+    }
+
+    /**
+     * @see #parse(Slice[])
+     */
+    public final void reset(Slice[] segments) {
+        if (segments.length == 1) {
+            reset(segments[0]);
+            return;
+        }
+        this.buf = EMPTY_BUF;
+        this.head = 0;
+        this.tail = 0;
+        this.structuralIndex = null;
+        this.segments = segments.clone();
+        this.nextSegment = 0;
+        this.in = null;
+        this.streaming = true;
+        this.lastTysonType = null;
+        this.typeAnnotatedValueAt = -1;
+        this.scannedNumberAt = -1;
     }
 
     public final void reset(InputStream in) {
-        JsonIterator.enableStreamingSupport();
         this.in = in;
         this.head = 0;
         this.tail = 0;
+        this.structuralIndex = null;
+        this.segments = null;
+        this.streaming = true;
+        this.lastTysonType = null;
+        this.typeAnnotatedValueAt = -1;
+        this.scannedNumberAt = -1;
     }
 
     public final void close() throws IOException {
@@ -160,13 +378,11 @@ public class JsonIterator implements Closeable {
     public final boolean readNull() throws IOException {
         byte c = IterImpl.nextToken(this);
         if (c != 'n') {
-        	if(c == '"') {
-        		unreadByte();
-        		String str = readString();
-        		if(str.equals("null")) {
-        			return true;
-        		}
-        	} else unreadByte();
+            unreadByte();
+            if (c == '"' && IterImpl.peekQuotedLiteral(this) == QuotedLiteral.NULL) {
+                QuotedLiteral.skip(this);
+                return true;
+            }
             return false;
         }
         IterImpl.skipFixedBytes(this, 3); // null
@@ -189,15 +405,14 @@ public class JsonIterator implements Closeable {
             IterImpl.skipFixedBytes(this, 4); // false
             return false;
         }
-        if(c == '"') {
-    		unreadByte();
-    		String str = readString();
-    		if(str.equals("true")) {
-    			return true;
-    		} else if(str.contentEquals("false")) {
-    			return false;
-    		}
-    	}
+        if (c == '"') {
+            unreadByte();
+            int literal = IterImpl.peekQuotedLiteral(this);
+            if (literal == QuotedLiteral.TRUE || literal == QuotedLiteral.FALSE) {
+                QuotedLiteral.skip(this);
+                return literal == QuotedLiteral.TRUE;
+            }
+        }
         throw reportError("readBoolean", "expect t or f, found: " + c);
     }
    
@@ -282,6 +497,9 @@ public class JsonIterator implements Closeable {
         if (valueType != ValueType.NUMBER) {
             throw reportError("readBigDecimal", "not number");
         }
+        if (scannedNumberAt == head && scannedNumberEnd != -1) {
+            return BigDecimal.valueOf(readLong());
+        }
         IterImplForStreaming.numberChars numberChars = IterImplForStreaming.readNumber(this);
         return new BigDecimal(numberChars.chars, 0, numberChars.charsLength);
     }
@@ -296,6 +514,9 @@ public class JsonIterator implements Closeable {
         if (valueType != ValueType.NUMBER) {
             throw reportError("readBigDecimal", "not number");
         }
+        if (scannedNumberAt == head && scannedNumberEnd != -1) {
+            return BigInteger.valueOf(readLong());
+        }
         IterImplForStreaming.numberChars numberChars = IterImplForStreaming.readNumber(this);
         return new BigInteger(new String(numberChars.chars, 0, numberChars.charsLength));
     }
@@ -331,27 +552,45 @@ public class JsonIterator implements Closeable {
             ValueType valueType = whatIsNext();
             switch (valueType) {
                 case STRING:
-                	String stringContent = readString();
-                	if(stringContent.equals("null")) {
-                		return null;
-                	} else if (stringContent.contentEquals("true")) {
-                		return true;
-                	} else if (stringContent.contentEquals("false")) {
-                		return false;
-                	}
-                	//TODO: look at number case
-                    return stringContent;
+                    switch (IterImpl.peekQuotedLiteral(this)) {
+                        case QuotedLiteral.NULL:
+                            QuotedLiteral.skip(this);
+                            return null;
+                        case QuotedLiteral.TRUE:
+                            QuotedLiteral.skip(this);
+                            return true;
+                        case QuotedLiteral.FALSE:
+                            QuotedLiteral.skip(this);
+                            return false;
+                        default:
+                            return readString();
+                    }
                 case NUMBER:
-                	//TODO: look at number case (integer, double, decimal)
+                    if (buf[head] == '"') {
+                        // annotated "NaN", "INF", "+INF" or "-INF"
+                        return readDouble();
+                    }
+                    if (numberType() == TysonType.INTEGER && scannedNumberEnd != -1) {
+                        // value already converted by the scan
+                        long longNumber = readLong();
+                        if (longNumber <= Integer.MAX_VALUE && longNumber >= Integer.MIN_VALUE) {
+                            return (int) longNumber;
+                        }
+                        return longNumber;
+                    }
                     IterImplForStreaming.numberChars numberChars = IterImplForStreaming.readNumber(this);
-                    String numberStr = new String(numberChars.chars, 0, numberChars.charsLength);
-                    Double number = Double.valueOf(numberStr);
+                    double number = DoubleParser.parseDouble(numberChars.chars, 0, numberChars.charsLength);
                     if (numberChars.dotFound) {
                         return number;
                     }
-                    double doubleNumber = number;
-                    if (doubleNumber == Math.floor(doubleNumber) && !Double.isInfinite(doubleNumber)) {
-                        long longNumber = Long.valueOf(numberStr);
+                    if (number == Math.floor(number) && !Double.isInfinite(number)) {
+                        long longNumber;
+                        try {
+                            longNumber = Long.parseLong(new String(numberChars.chars, 0, numberChars.charsLength));
+                        } catch (NumberFormatException e) {
+                            // beyond the range of long
+                            return number;
+                        }
                         if (longNumber <= Integer.MAX_VALUE && longNumber >= Integer.MIN_VALUE) {
                             return (int) longNumber;
                         }
@@ -359,7 +598,7 @@ public class JsonIterator implements Closeable {
                     }
                     return number;
                 case NULL:
-                    IterImpl.skipFixedBytes(this, 4);
+                    readNull();
                     return null;
                 case BOOLEAN:
                     return readBoolean();
@@ -472,80 +711,53 @@ public class JsonIterator implements Closeable {
      * @throws IOException
      */
     public String readTypeDeclaration() throws IOException {
-    	//consume first byte of the type declaration (opening parenthesis)
-    	byte openParenthesis = IterImpl.nextToken(this);
-    	if(openParenthesis == '(') {
-    		//read the string type name
-    		String typeName = readString();
-    		if(IterImpl.nextToken(this) == ')') {
-    			//type declaration is closed with closing parenthesis, return type name
-    			return typeName;
-    		} else throw reportError("readTypeDeclaration", "no closing parenthesis");
-    	} else throw reportError("readTypeDeclaration", "no opening parenthesis");
+    	return readTysonType().name();
+    }
+
+    /**
+     * Consume a type declaration in front of a value and resolve it through the {@link TypeNameRegistry}.
+     * Startpoint is in front of opening parenthesis.
+     *
+     * @return interned handle of the declared type
+     * @throws IOException
+     */
+    public final TysonType readTysonType() throws IOException {
+    	lastTysonType = IterImpl.readTypeAnnotation(this);
+    	return lastTysonType;
+    }
+
+    /**
+     * @return the type annotation consumed by the last whatIsNext() or readTysonType(), null if none
+     */
+    public final TysonType lastTysonType() {
+    	return lastTysonType;
     }
     
     /**
-     * Consume a type declaration in front of a value. 
-     * Startpoint is after a closing parenthesis.
-     * Step back in the stream of bytes until complete type declaration can be read and
-     * return the name of the type. Needed to create userdefined types, 
+     * @return bytes of the type name consumed by the last whatIsNext() or readTysonType(), without quotes.
+     * The slice is reused and only valid until the next type annotation is read, null if none
+     */
+    public final Slice lastTypeAnnotation() {
+    	if (lastTysonType == null) {
+    		return null;
+    	}
+    	return typeAnnotation;
+    }
+
+    /**
+     * Get the name of the type declared in front of the current value.
+     * Startpoint is in front of the value, as left by whatIsNext().
+     * Needed to create userdefined types, 
      * whose constructor waits for a typeName and a TysonInstance.
      * 
-     * @return String typeName of declared type
+     * @return String typeName of declared type, in quotes
      * @throws IOException
      */
     public String readTypeName() throws IOException{
-    	int currentHead = this.head - 1;
-    	byte currentToken = this.buf[currentHead];
-    	//currentToken should point to closing parenthesis
-    	String typeNameReversed = "";
-    	//System.out.println(this.buf[3]);
-    	//System.out.println("currentToken: " +(char) currentToken);
-    	
-    	//skip whitespace characters
-    	boolean skipWhitespaces = false;
-    	skipWhitespaces = (currentToken == ' ' || currentToken == '\n' || currentToken == '\r' || currentToken == '\t' );
-    	while(skipWhitespaces) {
-    		currentHead -= 1;
-    		if(!(this.buf[currentHead]== ' ' || this.buf[currentHead] == '\n' || this.buf[currentHead] == '\r' || this.buf[currentHead] == '\t')) {
-    			skipWhitespaces = false;
-    		}
+    	if (lastTysonType == null || typeAnnotatedValueAt != head) {
+    		throw reportError("getTypeName", "trying to read type name of a built-in type");
     	}
-    	
-        currentToken = this.buf[currentHead];
-    	if(currentToken == ')') {
-    		//type declaration is present 
-    		//step back until opening parenthesis is found
-    		boolean continueBackwards = true;
-    		
-    		while(continueBackwards) {
-    			//go back one step
-        		currentHead -= 1;
-    			currentToken = this.buf[currentHead];
-    			//add currentToken to typeName string
-    			typeNameReversed = typeNameReversed + (char)currentToken;
-    			//did we find the matching opening parenthesis?
-    			if(currentToken == '(') {
-    				int peek = currentHead - 1;
-    				if(peek >= 0 && this.buf[peek] != '/') {
-        				//we found an opening parenthesis and it is not escaped, need to prevent next loop iteration
-    					continueBackwards = false;
-    				} 
-    				if(peek < 0) {
-    					//we are at the start of the stream, cannot go back any further
-    					continueBackwards = false;
-    				}
-    				//remove parenthesis from typeNameReversed
-    				typeNameReversed = typeNameReversed.substring(0, typeNameReversed.length() - 1);
-    			}
-    		}
-    		//typeNameReversed should now contain our type-name but in reverse
-    		//System.out.println(currentHead);
-    		String typeName = new StringBuffer(typeNameReversed).reverse().toString();
-    		return typeName;    		
-    		
-    	} else throw reportError("getTypeName", "trying to read type name of a built-in type");
-
+    	return lastTysonType.quotedName;
     }
     
     /**
@@ -559,96 +771,162 @@ public class JsonIterator implements Closeable {
      * @throws IOException
      */
     public ValueType whatIsNext() throws IOException {
-        ValueType valueType = valueTypes[IterImpl.nextToken(this)];
+        byte c = IterImpl.nextToken(this);
+        ValueType valueType = valueTypes[c];
         unreadByte();
         //the next tokens are not representing a value but they could be a type declaration
-        if(valueType == ValueType.INVALID) {
-        	TypeDeclaration typeDecl = typeDeclarations[IterImpl.nextToken(this)];
+        if(valueType == ValueType.INVALID && typeDeclarations[c] == TypeDeclaration.TYPEDECLARATION) {
+        	TysonType declaredType = readTysonType();
+        	//token should now be after the type declaration
+        	ValueType providedValue = valueTypes[IterImpl.nextToken(this)];
         	unreadByte();
-        	if(typeDecl == TypeDeclaration.TYPEDECLARATION) {
-            	String typeName = readTypeDeclaration();
-    //System.out.println("typeName is " + typeName);
-            	//token should now be after the type declaration
-            	ValueType providedValue = valueTypes[IterImpl.nextToken(this)];
-                unreadByte();
-            	//check if annotated value (typeName) corresponds to a built in type
-        		List<String> builtinTypes = Arrays.asList("string", "integer", "decimal", "double", "boolean", "null", "object", "array");
-    //System.out.println("builtin check is: " + builtinTypes.contains(typeName));
-            	boolean isBuiltInType = (builtinTypes.contains(typeName));
-            	//if yes, check if declared value (declaredValue) is of the same type
-            	if(isBuiltInType) {
-            		boolean isSameType = (mapBuiltInValueTypeToString(providedValue).equals(typeName)); //TODO: need to look at number case
-    //System.out.println("mapBuiltInValueTypeToString(providedValue) is: " + mapBuiltInValueTypeToString(providedValue));
-    //System.out.println("isSameType is: " + isSameType);
-            		if (isSameType) {
-            			//unread the byte we read when calling nextToken, iterator now at the end of type declaration
-            			unreadByte();
-            		} else {
-            			//we need to handle typed values that are quoted:
-            			unreadByte();
-            			if(providedValue == ValueType.STRING) {
-            				String val = readString();
-            				int backsteps = val.length()+3;
-            				//Handle the boolean cases
-            				if(val.contentEquals("true") || val.contentEquals("false")) {
-            					providedValue = ValueType.BOOLEAN;
-            				}
-            				
-            				//handle the null case
-            				else if(val.contentEquals("null")) {
-            					providedValue = ValueType.NULL;
-            				}
-            				//Handle the number cases, these could be "NaN", "+INF", "-INF" or any number
-            				//TODO
-            				
-            				//need to jump back all the bytes we already consumed in readString()
-            				this.head = this.head - backsteps;
-            				return providedValue;
-            			}
-            			
-            			throw reportError("whatIsNext, typecheck", "type mismatch");
-            		}
-            	} else {
-                //if no, we have a user defined type. Atom/Array/Object depending on the declaredValue
-    //System.out.println(providedValue);
-            		switch(providedValue) {
-            		case STRING:
-            			//declaredValue is String -> Atomic Type
-            			return providedValue = ValueType.USERDEFINEDATOMIC;
-            		case NUMBER:
-            			//declaredValue is Number -> Atomic Type
-            			return providedValue = ValueType.USERDEFINEDATOMIC;
-            		case BOOLEAN:
-            			//declaredValue is Boolean -> Atomic Type
-            			return providedValue = ValueType.USERDEFINEDATOMIC;
-            		case NULL:
-            			//declaredValue is Null -> Atomic Type
-            			return providedValue = ValueType.USERDEFINEDATOMIC;
-            		case ARRAY:
-            			//declaredValue is Array -> Array Type
-            			return providedValue = ValueType.USERDEFINEDARRAY;
-            		case OBJECT:
-            			//declaredValue is Object -> Object Type
-            			return providedValue = ValueType.USERDEFINEDOBJECT;
-                	default:
-                		throw reportError("whatIsNext, userdefined value", "provided value " +providedValue+" is not conformant notation");
-            		}
-            	}
-            	return providedValue;
-            }
+        	typeAnnotatedValueAt = head;
+        	if(declaredType.isBuiltIn()) {
+        		//built-in annotation, check if the provided value is of the declared type
+        		if (declaredType.valueType() == providedValue) {
+        			if (providedValue == ValueType.NUMBER) {
+        				if (!admitsNumber(declaredType, numberType())) {
+        					throw reportError("whatIsNext, typecheck", "type mismatch, " + declaredType + " can not be " + numberType());
+        				}
+        				//scanning might have loaded more bytes in streaming mode
+        				typeAnnotatedValueAt = head;
+        			}
+        			return providedValue;
+        		}
+        		//we need to handle typed values that are quoted:
+        		if(providedValue == ValueType.STRING) {
+        			//"true", "false", "null", "NaN", "INF", "+INF" and "-INF" stand for the unquoted value
+        			//when it is of the declared type, like TysonTranscoder, anything else stays a string
+        			ValueType quotedValue = QuotedLiteral.valueType(IterImpl.peekQuotedLiteral(this));
+        			//peeking might have loaded more bytes in streaming mode
+        			typeAnnotatedValueAt = head;
+        			if (quotedValue == declaredType.valueType()
+        					&& (quotedValue != ValueType.NUMBER || admitsNumber(declaredType, TysonType.DOUBLE))) {
+        				return quotedValue;
+        			}
+        			return ValueType.STRING;
+        		}
+        		throw reportError("whatIsNext, typecheck", "type mismatch");
+        	}
+        	//if no, we have a user defined type. Atom/Array/Object depending on the declaredValue
+        	switch(providedValue) {
+        	case STRING:
+        	case NUMBER:
+        	case BOOLEAN:
+        	case NULL:
+        		return ValueType.USERDEFINEDATOMIC;
+        	case ARRAY:
+        		return ValueType.USERDEFINEDARRAY;
+        	case OBJECT:
+        		return ValueType.USERDEFINEDOBJECT;
+        	default:
+        		throw reportError("whatIsNext, userdefined value", "provided value " +providedValue+" is not conformant notation");
+        	}
         }
         
-        if(valueType == ValueType.NUMBER) {
-        	/*
-        	 * In this case we have a number because the value starts with a 
-        	 * -, 0, 1, 2, 3, 4, 5, 6, 7, 8 or 9, but no type is declared.
-        	 * We therefore need to look at the number to get the right type.
-        	 * TODO
-        	 */
-        }
+        //the lexical form of an unannotated number (integer, decimal or double) is classified lazily by numberType()
         return valueType;
     }
 
+    /**
+     * Classify the number in front of the iterator by its lexical form:
+     * integer (digits only), decimal (with a dot) or double (with an exponent).
+     * The digits are scanned once, the result is cached for the position,
+     * and integers are converted on the way, so a following readInt()/readLong()/readDouble()
+     * does not scan them again.
+     *
+     * @return TysonType.INTEGER, TysonType.DECIMAL or TysonType.DOUBLE
+     * @throws IOException
+     */
+    public final TysonType numberType() throws IOException {
+        byte c = IterImpl.nextToken(this);
+        unreadByte();
+        if (c == '"' && QuotedLiteral.valueType(IterImpl.peekQuotedLiteral(this)) == ValueType.NUMBER) {
+            return TysonType.DOUBLE;
+        }
+        if (scannedNumberAt != head) {
+            if (valueTypes[c] != ValueType.NUMBER) {
+                throw reportError("numberType", "not number");
+            }
+            scannedNumberType = IterImpl.scanNumber(this);
+            scannedNumberAt = head;
+        }
+        return scannedNumberType;
+    }
+
+    /**
+     * Read the next value, validated against the schema of its type while it is read.
+     * The value may be annotated, then the annotation must name the same type.
+     *
+     * @param typeName built-in type, or user-defined type registered with {@link com.jsoniter.spi.SchemaRegistry}
+     * @return the value, objects and arrays are read as Map and List like read()
+     * @throws IOException
+     */
+    public final Object readValidated(String typeName) throws IOException {
+        return CodegenImplSchema.readValidated(typeName, this);
+    }
+
+    /**
+     * Validate the next value like readValidated, without building Map and List of objects and arrays.
+     *
+     * @param typeName built-in type, or user-defined type registered with {@link com.jsoniter.spi.SchemaRegistry}
+     * @throws IOException
+     */
+    public final void skipValidated(String typeName) throws IOException {
+        CodegenImplSchema.skipValidated(typeName, this);
+    }
+
+    // integer is a decimal is a double
+    static boolean admitsNumber(TysonType declaredType, TysonType numberType) {
+        if (declaredType == TysonType.DOUBLE) {
+            return true;
+        }
+        if (declaredType == TysonType.DECIMAL) {
+            return numberType != TysonType.DOUBLE;
+        }
+        return numberType == TysonType.INTEGER;
+    }
+
+    /**
+     * Decode the elements of a top level array on the executor, in chunks of many elements.
+     * The chunks are found by a quick pass tracking only strings and nesting depth,
+     * each is decoded with a pooled iterator of the worker thread and the current config of the caller.
+     *
+     * @return the elements in the order of the input
+     */
+    public static <T> List<T> parallelReadArray(byte[] input, Class<T> elementClass, ExecutorService executor) {
+        return ParallelArrayReader.read(input, elementClass, executor);
+    }
+
+    public static <T> List<T> parallelReadArray(byte[] input, TypeLiteral<T> elementType, ExecutorService executor) {
+        return ParallelArrayReader.read(input, elementType.getType(), executor);
+    }
+
+    /**
+     * Decode JSON Lines on the executor: one value per line, blank lines are ignored.
+     * The input is cut into ranges of many lines at new lines, a new line can not be inside a value,
+     * and the ranges are decoded with pooled iterators of the worker threads and the current config of the caller.
+     * The records are the same as reading the lines one by one.
+     *
+     * @param ordered false to return the records of each range as soon as it is decoded, in any order
+     */
+    public static <T> Iterator<T> parallelReadLines(byte[] input, Class<T> recordClass, ExecutorService executor, boolean ordered) {
+        return ParallelLinesReader.read(input, recordClass, executor, ordered);
+    }
+
+    public static <T> Iterator<T> parallelReadLines(byte[] input, TypeLiteral<T> recordType, ExecutorService executor, boolean ordered) {
+        return ParallelLinesReader.read(input, recordType.getType(), executor, ordered);
+    }
+
+    /**
+     * Compile paths like <code>$.user.id</code> into a decoder reading all of them in one pass.
+     *
+     * @see Projection
+     */
+    public static Projection compileProjection(String... paths) {
+        return Projection.compile(paths);
+    }
+
     public void skip() throws IOException {
         IterImplSkip.skip(this);
     }
@@ -792,6 +1070,11 @@ public class JsonIterator implements Closeable {
         JsoniterSpi.setCurrentConfig(newConfig);
     }
 
+    /**
+     * Not needed to read input streams or segments anymore, such iterators stream on their own
+     * while the others keep parsing in memory. Makes every iterator of the vm use the streaming
+     * implementation, it must be called before any parsing.
+     */
     public static void enableStreamingSupport() {
         if (isStreamingEnabled) {
             return;
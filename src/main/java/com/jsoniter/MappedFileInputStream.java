@@ -0,0 +1,101 @@
+package com.jsoniter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// reads a file through memory mapped windows: no system call per read, a window is remapped when consumed,
+// so that files larger than 2GB can be read
+final class MappedFileInputStream extends InputStream {
+
+    static final long WINDOW_SIZE = 1L << 30;
+    // a larger file is not copied to the heap at once by default, it is parsed one window of this size at a time
+    static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final boolean closeChannel;
+    private final long windowSize;
+    private final long size;
+    private long windowEnd;
+    private MappedByteBuffer window;
+
+    MappedFileInputStream(FileChannel channel, boolean closeChannel, long windowSize) throws IOException {
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.windowSize = windowSize;
+        this.size = channel.size();
+        this.windowEnd = channel.position();
+    }
+
+    // the bytes from the position of the channel to its end, copied from the mapping in one go
+    static byte[] readFully(FileChannel channel) throws IOException {
+        long length = channel.size() - channel.position();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("file of " + length + " bytes does not fit in a buffer");
+        }
+        byte[] buf = new byte[(int) length];
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, channel.position(), length);
+        mapped.get(buf);
+        return buf;
+    }
+
+    private boolean nextWindow() throws IOException {
+        if (window != null && window.hasRemaining()) {
+            return true;
+        }
+        if (windowEnd >= size) {
+            return false;
+        }
+        long length = Math.min(windowSize, size - windowEnd);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowEnd, length);
+        windowEnd += length;
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextWindow()) {
+            return -1;
+        }
+        return window.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextWindow()) {
+            return -1;
+        }
+        int n = Math.min(len, window.remaining());
+        window.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && nextWindow()) {
+            int step = (int) Math.min(n - skipped, window.remaining());
+            window.position(window.position() + step);
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        long remaining = size - windowEnd + (window == null ? 0 : window.remaining());
+        return (int) Math.min(remaining, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        if (closeChannel) {
+            channel.close();
+        }
+    }
+}
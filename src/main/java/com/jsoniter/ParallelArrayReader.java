@@ -0,0 +1,218 @@
+package com.jsoniter;
+
+import com.jsoniter.spi.Config;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.JsoniterSpi;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// a top level array is cut at the commas between its elements, the chunks are decoded by the executor.
+// finding the commas only tracks strings and nesting depth, it is much faster than decoding
+final class ParallelArrayReader {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+    private static final int CHUNKS_PER_PROCESSOR = 4;
+
+    private ParallelArrayReader() {
+    }
+
+    static <T> List<T> read(byte[] input, final Type elementType, ExecutorService executor) {
+        JsonIterator iter = JsonIterator.parse(input);
+        try {
+            ValueType valueType = iter.whatIsNext();
+            if (valueType != ValueType.ARRAY && valueType != ValueType.USERDEFINEDARRAY) {
+                throw iter.reportError("parallelReadArray", "expect array");
+            }
+            int chunkSize = Math.max(MIN_CHUNK_SIZE, input.length / (Runtime.getRuntime().availableProcessors() * CHUNKS_PER_PROCESSOR));
+            final int[] bounds = findChunks(iter, chunkSize);
+            int chunkCount = bounds.length / 2;
+            if (chunkCount == 0) {
+                return new ArrayList<T>();
+            }
+            final Config config = JsoniterSpi.getCurrentConfig();
+            if (chunkCount == 1) {
+                return readChunk(input, bounds[0], bounds[1], elementType, config);
+            }
+            final byte[] buf = input;
+            List<Future<List<T>>> futures = new ArrayList<Future<List<T>>>(chunkCount);
+            for (int i = 0; i < chunkCount; i++) {
+                final int head = bounds[2 * i];
+                final int tail = bounds[2 * i + 1];
+                futures.add(executor.submit(new Callable<List<T>>() {
+                    @Override
+                    public List<T> call() throws Exception {
+                        return readChunk(buf, head, tail, elementType, config);
+                    }
+                }));
+            }
+            List<T> elements = null;
+            try {
+                for (Future<List<T>> future : futures) {
+                    List<T> chunk = getChunk(future);
+                    if (elements == null) {
+                        elements = new ArrayList<T>(chunk.size() * chunkCount + 16);
+                    }
+                    elements.addAll(chunk);
+                }
+            } finally {
+                for (Future<List<T>> future : futures) {
+                    future.cancel(false);
+                }
+            }
+            return elements;
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    // failures of the worker are thrown as if the chunk was decoded by the caller
+    static <T> List<T> getChunk(Future<List<T>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JsonException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new JsonException(e.getCause());
+        }
+    }
+
+    // head and tail of each chunk, the iterator is in front of the [ of the array.
+    // only the bytes between the elements are looked at one by one, the elements are skipped by IterImplScan
+    private static int[] findChunks(JsonIterator iter, int chunkSize) {
+        byte[] buf = iter.buf;
+        int start = iter.head + 1;
+        int[] bounds = new int[16];
+        int count = 0;
+        boolean empty = true;
+        for (int i = start; i < iter.tail; i++) {
+            byte c = buf[i];
+            switch (c) {
+                case ' ':
+                case '\n':
+                case '\t':
+                case '\r':
+                    continue;
+                case '"':
+                    i = StructuralIndex.findStringEnd(buf, i + 1, iter.tail);
+                    if (i == -1) {
+                        iter.head = iter.tail;
+                        throw iter.reportError("parallelReadArray", "incomplete string");
+                    }
+                    break;
+                case '[':
+                    i = findClose(iter, i, (byte) '[', (byte) ']');
+                    break;
+                case '{':
+                    i = findClose(iter, i, (byte) '{', (byte) '}');
+                    break;
+                case '(':
+                    i = findClose(iter, i, (byte) '(', (byte) ')');
+                    break;
+                case '}':
+                    iter.head = i;
+                    throw iter.reportError("parallelReadArray", "expect ]");
+                case ']':
+                    if (!empty) {
+                        if (count + 2 > bounds.length) {
+                            int[] newBounds = new int[bounds.length * 2];
+                            System.arraycopy(bounds, 0, newBounds, 0, count);
+                            bounds = newBounds;
+                        }
+                        bounds[count++] = start;
+                        bounds[count++] = i;
+                    }
+                    assertNoTrailing(iter, i + 1);
+                    int[] result = new int[count];
+                    System.arraycopy(bounds, 0, result, 0, count);
+                    return result;
+                case ',':
+                    if (i - start >= chunkSize) {
+                        if (count + 2 > bounds.length) {
+                            int[] newBounds = new int[bounds.length * 2];
+                            System.arraycopy(bounds, 0, newBounds, 0, count);
+                            bounds = newBounds;
+                        }
+                        bounds[count++] = start;
+                        bounds[count++] = i;
+                        start = i + 1;
+                    }
+                    break;
+            }
+            empty = false;
+        }
+        iter.head = iter.tail;
+        throw iter.reportError("parallelReadArray", "incomplete array");
+    }
+
+    // index of the close matching the open at i, strings inside are skipped
+    private static int findClose(JsonIterator iter, int i, byte open, byte close) {
+        byte[] buf = iter.buf;
+        int level = 0;
+        for (; (i = IterImplScan.findStructural(buf, i, iter.tail, open, close)) != -1; i++) {
+            byte c = buf[i];
+            if (c == '"') {
+                i = StructuralIndex.findStringEnd(buf, i + 1, iter.tail);
+                if (i == -1) {
+                    break;
+                }
+            } else if (c == open) {
+                level++;
+            } else if (--level == 0) {
+                return i;
+            }
+        }
+        iter.head = iter.tail;
+        throw iter.reportError("parallelReadArray", "incomplete array");
+    }
+
+    private static void assertNoTrailing(JsonIterator iter, int head) {
+        for (int i = head; i < iter.tail; i++) {
+            switch (iter.buf[i]) {
+                case ' ':
+                case '\n':
+                case '\t':
+                case '\r':
+                    continue;
+            }
+            iter.head = i;
+            throw iter.reportError("parallelReadArray", "trailing garbage found");
+        }
+    }
+
+    // elements separated by commas, without the brackets of the array
+    private static <T> List<T> readChunk(byte[] buf, int head, int tail, Type elementType, Config config) throws IOException {
+        Config previousConfig = JsoniterSpi.getCurrentConfig();
+        JsoniterSpi.setCurrentConfig(config);
+        JsonIterator iter = JsonIteratorPool.borrowJsonIterator();
+        try {
+            iter.reset(buf, head, tail);
+            List<T> elements = new ArrayList<T>();
+            for (; ; ) {
+                @SuppressWarnings("unchecked")
+                T element = (T) iter.read(elementType);
+                elements.add(element);
+                if (CodegenAccess.skipWhitespacesWithoutLoadMore(iter)) {
+                    return elements;
+                }
+                if (IterImpl.readByte(iter) != ',') {
+                    iter.unreadByte();
+                    throw iter.reportError("parallelReadArray", "expect , between elements");
+                }
+            }
+        } finally {
+            JsonIteratorPool.returnJsonIterator(iter);
+            JsoniterSpi.setCurrentConfig(previousConfig);
+        }
+    }
+}
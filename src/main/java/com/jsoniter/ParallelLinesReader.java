@@ -0,0 +1,156 @@
+package com.jsoniter;
+
+import com.jsoniter.spi.Config;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.JsoniterSpi;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// the input is cut into ranges of many lines, the ranges are decoded by the executor.
+// a raw new line can not be part of a value, in strings it must be escaped as \n,
+// so the first new line after any position ends a record: the ranges are found without scanning the input
+final class ParallelLinesReader {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+    private static final int CHUNKS_PER_PROCESSOR = 4;
+
+    private ParallelLinesReader() {
+    }
+
+    static <T> Iterator<T> read(byte[] input, final Type recordType, ExecutorService executor, boolean ordered) {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, input.length / (Runtime.getRuntime().availableProcessors() * CHUNKS_PER_PROCESSOR));
+        final Config config = JsoniterSpi.getCurrentConfig();
+        if (input.length <= chunkSize) {
+            try {
+                return ParallelLinesReader.<T>readChunk(input, 0, input.length, recordType, config).iterator();
+            } catch (IOException e) {
+                throw new JsonException(e);
+            }
+        }
+        final byte[] buf = input;
+        Results<T> results = new Results<T>(ordered ? null : new ExecutorCompletionService<List<T>>(executor));
+        int head = 0;
+        while (head < input.length) {
+            final int chunkHead = head;
+            final int chunkTail = nextLine(input, head + chunkSize);
+            Callable<List<T>> task = new Callable<List<T>>() {
+                @Override
+                public List<T> call() throws Exception {
+                    return readChunk(buf, chunkHead, chunkTail, recordType, config);
+                }
+            };
+            results.futures.add(ordered ? executor.submit(task) : results.completionService.submit(task));
+            head = chunkTail;
+        }
+        return results;
+    }
+
+    // position after the first new line from the given position
+    private static int nextLine(byte[] buf, int from) {
+        for (int i = from; i < buf.length; i++) {
+            if (buf[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return buf.length;
+    }
+
+    // every line is read on its own, the records do not depend on where the ranges were cut
+    private static <T> List<T> readChunk(byte[] buf, int head, int tail, Type recordType, Config config) throws IOException {
+        Config previousConfig = JsoniterSpi.getCurrentConfig();
+        JsoniterSpi.setCurrentConfig(config);
+        JsonIterator iter = JsonIteratorPool.borrowJsonIterator();
+        try {
+            List<T> records = new ArrayList<T>();
+            while (head < tail) {
+                int lineEnd = head;
+                while (lineEnd < tail && buf[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                iter.reset(buf, head, lineEnd);
+                if (!CodegenAccess.skipWhitespacesWithoutLoadMore(iter)) {
+                    @SuppressWarnings("unchecked")
+                    T record = (T) iter.read(recordType);
+                    records.add(record);
+                    if (!CodegenAccess.skipWhitespacesWithoutLoadMore(iter)) {
+                        throw iter.reportError("parallelReadLines", "expect new line after value");
+                    }
+                }
+                head = lineEnd + 1;
+            }
+            return records;
+        } finally {
+            JsonIteratorPool.returnJsonIterator(iter);
+            JsoniterSpi.setCurrentConfig(previousConfig);
+        }
+    }
+
+    private static class Results<T> implements Iterator<T> {
+
+        private final List<Future<List<T>>> futures = new ArrayList<Future<List<T>>>();
+        // null if the records are returned in the order of the input
+        private final CompletionService<List<T>> completionService;
+        private int taken;
+        private Iterator<T> current = Collections.<T>emptyList().iterator();
+
+        private Results(CompletionService<List<T>> completionService) {
+            this.completionService = completionService;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (taken == futures.size()) {
+                    return false;
+                }
+                try {
+                    current = ParallelArrayReader.getChunk(nextFuture()).iterator();
+                    taken++;
+                } catch (RuntimeException e) {
+                    for (Future<List<T>> future : futures) {
+                        future.cancel(false);
+                    }
+                    taken = futures.size();
+                    throw e;
+                }
+            }
+            return true;
+        }
+
+        private Future<List<T>> nextFuture() {
+            if (completionService == null) {
+                return futures.get(taken);
+            }
+            try {
+                return completionService.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JsonException(e);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
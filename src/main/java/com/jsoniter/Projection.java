@@ -0,0 +1,60 @@
+package com.jsoniter;
+
+import com.jsoniter.spi.Decoder;
+import com.jsoniter.spi.JsonException;
+
+import java.io.IOException;
+
+/**
+ * Reads a fixed set of paths from each value, for example <code>$.user.id</code>, <code>$.geo['lat']</code>
+ * or <code>$.tags[0]</code>. The paths are compiled into one decoder that walks every object on the way once,
+ * matches the keys by hash (by string with DYNAMIC_MODE_AND_MATCH_FIELD_STRICTLY) and skips everything else.
+ * Type annotations are accepted in front of any value. Compile once and reuse, the projection is thread safe,
+ * the rows are not.
+ */
+public final class Projection {
+
+    private final String[] paths;
+    private final Decoder decoder;
+
+    Projection(String[] paths, Decoder decoder) {
+        this.paths = paths;
+        this.decoder = decoder;
+    }
+
+    public static Projection compile(String... paths) {
+        return CodegenImplProjection.getProjection(paths.clone());
+    }
+
+    public ProjectionRow newRow() {
+        return new ProjectionRow(paths);
+    }
+
+    /**
+     * @return the slot of the path in the rows, -1 if it is not part of the projection
+     */
+    public int slot(String path) {
+        for (int i = 0; i < paths.length; i++) {
+            if (paths[i].equals(path)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public ProjectionRow read(JsonIterator iter) throws IOException {
+        return read(iter, newRow());
+    }
+
+    /**
+     * read the next value of the iterator into the row, paths not found are left absent
+     */
+    public ProjectionRow read(JsonIterator iter, ProjectionRow row) throws IOException {
+        if (row.paths != paths) {
+            throw new JsonException("row was not created by this projection");
+        }
+        iter.existingObject = row;
+        decoder.decode(iter);
+        return row;
+    }
+}
@@ -0,0 +1,214 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.JsonException;
+
+import java.io.IOException;
+
+/**
+ * Values of the paths of a {@link Projection}, one slot per path in the order they were compiled.
+ * Numbers and booleans are kept unboxed, the row is cleared and reused by every read.
+ * Objects and arrays selected by a path are kept as lazy Any.
+ */
+public final class ProjectionRow {
+
+    final String[] paths;
+    private final ValueType[] valueTypes;
+    private final TysonType[] typeAnnotations;
+    private final boolean[] integers;
+    private final long[] longs;
+    private final double[] doubles;
+    private final Object[] objects;
+
+    ProjectionRow(String[] paths) {
+        this.paths = paths;
+        valueTypes = new ValueType[paths.length];
+        typeAnnotations = new TysonType[paths.length];
+        integers = new boolean[paths.length];
+        longs = new long[paths.length];
+        doubles = new double[paths.length];
+        objects = new Object[paths.length];
+        clear();
+    }
+
+    public int size() {
+        return paths.length;
+    }
+
+    public String path(int slot) {
+        return paths[slot];
+    }
+
+    public void clear() {
+        for (int i = 0; i < paths.length; i++) {
+            valueTypes[i] = ValueType.INVALID;
+            typeAnnotations[i] = null;
+            objects[i] = null;
+        }
+    }
+
+    /**
+     * @return false if the path was not found in the last value read
+     */
+    public boolean isPresent(int slot) {
+        return valueTypes[slot] != ValueType.INVALID;
+    }
+
+    /**
+     * @return INVALID if the path was not found, the value type of an annotated value otherwise
+     */
+    public ValueType valueType(int slot) {
+        return valueTypes[slot];
+    }
+
+    /**
+     * @return the name of the type annotation in front of the value, null if not annotated
+     */
+    public String typeName(int slot) {
+        TysonType annotation = typeAnnotations[slot];
+        return annotation == null ? null : annotation.name();
+    }
+
+    public boolean isNull(int slot) {
+        return valueTypes[slot] == ValueType.NULL;
+    }
+
+    /**
+     * a decimal or double is truncated like readLong
+     *
+     * @throws JsonException if the value is too large for long
+     */
+    public long getLong(int slot) {
+        expect(slot, ValueType.NUMBER);
+        if (integers[slot]) {
+            return longs[slot];
+        }
+        double value = doubles[slot];
+        // -2^63 is exact, 2^63 is the first double above Long.MAX_VALUE, NaN fails both
+        if (!(value >= Long.MIN_VALUE && value < -(double) Long.MIN_VALUE)) {
+            throw new JsonException(paths[slot] + " is too large for long: " + value);
+        }
+        return (long) value;
+    }
+
+    /**
+     * @throws JsonException if the value is too large for int
+     */
+    public int getInt(int slot) {
+        long value = getLong(slot);
+        if (value != (int) value) {
+            throw new JsonException(paths[slot] + " is too large for int: " + value);
+        }
+        return (int) value;
+    }
+
+    public double getDouble(int slot) {
+        expect(slot, ValueType.NUMBER);
+        return integers[slot] ? longs[slot] : doubles[slot];
+    }
+
+    public boolean getBoolean(int slot) {
+        expect(slot, ValueType.BOOLEAN);
+        return longs[slot] != 0;
+    }
+
+    /**
+     * @return the string, also under a user-defined annotation, or null if the value is null
+     */
+    public String getString(int slot) {
+        if (valueTypes[slot] == ValueType.NULL) {
+            return null;
+        }
+        if (valueTypes[slot] == ValueType.USERDEFINEDATOMIC && ((Any) objects[slot]).valueType() == ValueType.STRING) {
+            return ((Any) objects[slot]).toString();
+        }
+        expect(slot, ValueType.STRING);
+        return (String) objects[slot];
+    }
+
+    public Any getAny(int slot) {
+        switch (valueTypes[slot]) {
+            case INVALID:
+                throw new JsonException(paths[slot] + " not found");
+            case NUMBER:
+                return integers[slot] ? Any.wrap(longs[slot]) : Any.wrap(doubles[slot]);
+            case BOOLEAN:
+                return Any.wrap(longs[slot] != 0);
+            case NULL:
+                return Any.wrapNull();
+            case STRING:
+                return Any.wrap((String) objects[slot]);
+            default:
+                return (Any) objects[slot];
+        }
+    }
+
+    private void expect(int slot, ValueType valueType) {
+        if (valueTypes[slot] != valueType) {
+            if (valueTypes[slot] == ValueType.INVALID) {
+                throw new JsonException(paths[slot] + " not found");
+            }
+            throw new JsonException(paths[slot] + " is " + valueTypes[slot] + ", not " + valueType);
+        }
+    }
+
+    // false if the digits overflow long, accumulated negatively so that Long.MIN_VALUE fits
+    private boolean parseLong(char[] chars, int length, int slot) {
+        boolean negative = length > 0 && chars[0] == '-';
+        long value = 0;
+        for (int i = negative ? 1 : 0; i < length; i++) {
+            int digit = chars[i] - '0';
+            if (value < Long.MIN_VALUE / 10 || value * 10 < Long.MIN_VALUE + digit) {
+                return false;
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                return false;
+            }
+            value = -value;
+        }
+        longs[slot] = value;
+        return true;
+    }
+
+    // the value in front of the iterator, annotated or not
+    void read(JsonIterator iter, int slot) throws IOException {
+        ValueType valueType = iter.whatIsNext();
+        typeAnnotations[slot] = iter.typeAnnotatedValueAt == iter.head ? iter.lastTysonType() : null;
+        switch (valueType) {
+            case NUMBER:
+                if (iter.numberType() != TysonType.INTEGER) {
+                    integers[slot] = false;
+                    doubles[slot] = iter.readDouble();
+                } else if (iter.scannedNumberEnd != -1) {
+                    // converted by the scan
+                    integers[slot] = true;
+                    longs[slot] = iter.readLong();
+                } else {
+                    // streaming, or beyond the range of long: double only if it does not fit
+                    IterImplForStreaming.numberChars numberChars = IterImplForStreaming.readNumber(iter);
+                    integers[slot] = parseLong(numberChars.chars, numberChars.charsLength, slot);
+                    if (!integers[slot]) {
+                        doubles[slot] = DoubleParser.parseDouble(numberChars.chars, 0, numberChars.charsLength);
+                    }
+                }
+                break;
+            case STRING:
+                objects[slot] = iter.readString();
+                break;
+            case BOOLEAN:
+                longs[slot] = iter.readBoolean() ? 1 : 0;
+                break;
+            case NULL:
+                iter.readNull();
+                break;
+            case INVALID:
+                throw iter.reportError("readProjection", "expect value for " + paths[slot]);
+            default:
+                objects[slot] = iter.readAny();
+        }
+        valueTypes[slot] = valueType;
+    }
+}
@@ -0,0 +1,74 @@
+package com.jsoniter;
+
+import java.io.IOException;
+
+// TYSON allows built-in atomic values to be quoted, like ("boolean") "true" or ("double") "-INF".
+// The content of a short string is packed into a long, so that it can be classified without allocation.
+final class QuotedLiteral {
+
+    static final int STRING = 0;
+    static final int TRUE = 1;
+    static final int FALSE = 2;
+    static final int NULL = 3;
+    static final int NAN = 4;
+    static final int POSITIVE_INFINITY = 5;
+    static final int NEGATIVE_INFINITY = 6;
+    static final int MAX_LENGTH = 5; // false
+
+    private static final String[] LITERALS = {"true", "false", "null", "NaN", "INF", "+INF", "-INF"};
+    private static final int[] KINDS = {TRUE, FALSE, NULL, NAN, POSITIVE_INFINITY, POSITIVE_INFINITY, NEGATIVE_INFINITY};
+    private static final long[] PACKED = new long[LITERALS.length];
+
+    static {
+        for (int i = 0; i < LITERALS.length; i++) {
+            long packed = 0;
+            for (byte c : LITERALS[i].getBytes()) {
+                packed = pack(packed, c);
+            }
+            PACKED[i] = packed;
+        }
+    }
+
+    private QuotedLiteral() {
+    }
+
+    static long pack(long packed, byte c) {
+        return (packed << 8) | (c & 0xff);
+    }
+
+    /**
+     * @param packed content of the string, packed by pack()
+     * @param length number of bytes packed
+     * @return kind of literal, STRING if the content is not a literal
+     */
+    static int classify(long packed, int length) {
+        for (int i = 0; i < PACKED.length; i++) {
+            if (PACKED[i] == packed && LITERALS[i].length() == length) {
+                return KINDS[i];
+            }
+        }
+        return STRING;
+    }
+
+    static ValueType valueType(int kind) {
+        switch (kind) {
+            case TRUE:
+            case FALSE:
+                return ValueType.BOOLEAN;
+            case NULL:
+                return ValueType.NULL;
+            case NAN:
+            case POSITIVE_INFINITY:
+            case NEGATIVE_INFINITY:
+                return ValueType.NUMBER;
+            default:
+                return ValueType.STRING;
+        }
+    }
+
+    // consume the quoted literal peeked by IterImpl.peekQuotedLiteral
+    static void skip(JsonIterator iter) throws IOException {
+        IterImpl.nextToken(iter);
+        IterImpl.skipString(iter);
+    }
+}
@@ -3,6 +3,7 @@ package com.jsoniter;
 import com.jsoniter.spi.ClassInfo;
 import com.jsoniter.spi.Decoder;
 
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.Map;
@@ -23,6 +24,14 @@ class ReflectionDecoderFactory {
         if (clazz.isEnum()) {
             return new ReflectionEnumDecoder(clazz);
         }
-        return new ReflectionObjectDecoder(classAndArgs).create();
+        Map<String, Class> subclasses = CodegenImplObjectHash.getMappedSubclasses(clazz);
+        if (subclasses.isEmpty()) {
+            return new ReflectionObjectDecoder(classAndArgs).create();
+        }
+        Decoder fallback = null;
+        if (!Modifier.isAbstract(clazz.getModifiers())) {
+            fallback = new ReflectionObjectDecoder(classAndArgs).create();
+        }
+        return new ReflectionTypeDispatchDecoder(clazz, subclasses, fallback);
     }
 }
@@ -0,0 +1,39 @@
+package com.jsoniter;
+
+import com.jsoniter.spi.Decoder;
+import com.jsoniter.spi.TypeLiteral;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// decode as the subclass mapped to the type annotation, see Config.Builder.typeName
+class ReflectionTypeDispatchDecoder implements Decoder {
+
+    private final Class clazz;
+    private final Map<String, Class> subclasses;
+    private final Map<String, String> cacheKeys = new HashMap<String, String>();
+    private final Decoder fallback;
+
+    public ReflectionTypeDispatchDecoder(Class clazz, Map<String, Class> subclasses, Decoder fallback) {
+        this.clazz = clazz;
+        this.subclasses = subclasses;
+        this.fallback = fallback;
+        for (Map.Entry<String, Class> entry : subclasses.entrySet()) {
+            cacheKeys.put(entry.getKey(), TypeLiteral.create(entry.getValue()).getDecoderCacheKey());
+        }
+    }
+
+    @Override
+    public Object decode(JsonIterator iter) throws IOException {
+        TysonType type = CodegenAccess.readTypeAnnotation(iter);
+        Class subclass = type == null ? null : subclasses.get(type.name());
+        if (subclass != null) {
+            return Codegen.getDecoder(cacheKeys.get(type.name()), subclass).decode(iter);
+        }
+        if (fallback == null) {
+            throw iter.reportError("ReflectionTypeDispatchDecoder", "expect type annotation of a subclass of " + clazz);
+        }
+        return fallback.decode(iter);
+    }
+}
@@ -0,0 +1,62 @@
+package com.jsoniter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// the bytes of a lazy Any too large to be kept in memory, written to a temporary file as they are read.
+// the file is only created by the first write, values that are small enough cost nothing
+final class SpillFile extends OutputStream {
+
+    private File file;
+    private OutputStream out;
+
+    boolean isStarted() {
+        return out != null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        start();
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        start();
+        out.write(b, off, len);
+    }
+
+    private void start() throws IOException {
+        if (out == null) {
+            // deleted by the spilled Any owning it, or by discard()
+            file = File.createTempFile("jsoniter", ".spill");
+            out = new FileOutputStream(file);
+        }
+    }
+
+    // the file holding the bytes written since the previous one was finished
+    File finish() throws IOException {
+        File finished = file;
+        out.close();
+        out = null;
+        file = null;
+        return finished;
+    }
+
+    // the value could not be read, its bytes are not needed
+    void discard() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            // the file is deleted anyway
+        }
+        file.delete();
+        out = null;
+        file = null;
+    }
+}
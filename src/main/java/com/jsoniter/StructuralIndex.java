@@ -0,0 +1,130 @@
+package com.jsoniter;
+
+import java.util.Arrays;
+
+/**
+ * Span of every array and object of an in memory input, found in one pass before parsing.
+ * An iterator given the index skips a container in constant time instead of scanning it,
+ * which makes readAny() and the navigation of lazy Any proportional to the number of values visited
+ * rather than to the size of the skipped subtrees. Lazy Any created from such an iterator share the index.
+ * Positions are absolute in the indexed buffer, the index is immutable and can be shared by threads.
+ */
+public final class StructuralIndex {
+
+    private final byte[] buf;
+    // containers in the order of their opening bracket
+    private int[] starts;
+    private int[] ends; // after the closing bracket, -1 if not matched
+    private int[] nexts; // first container after this one and all its children
+    private int count;
+
+    private StructuralIndex(byte[] buf) {
+        this.buf = buf;
+        starts = new int[16];
+        ends = new int[16];
+        nexts = new int[16];
+    }
+
+    public static StructuralIndex build(byte[] buf) {
+        return build(buf, 0, buf.length);
+    }
+
+    /**
+     * malformed input is not reported here: unclosed containers, and from the first mismatched bracket on
+     * the enclosing and the following containers, are left out and scanned by the iterator as usual
+     */
+    public static StructuralIndex build(byte[] buf, int head, int tail) {
+        StructuralIndex index = new StructuralIndex(buf);
+        int[] stack = new int[16];
+        int depth = 0;
+        for (int i = head; i < tail; i++) {
+            switch (buf[i]) {
+                case '"':
+                    i = findStringEnd(buf, i + 1, tail);
+                    if (i == -1) {
+                        return index;
+                    }
+                    break;
+                case '[':
+                case '{':
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    stack[depth++] = index.add(i);
+                    break;
+                case ']':
+                case '}':
+                    if (depth > 0) {
+                        int container = stack[--depth];
+                        // ] is [ + 2 and } is { + 2
+                        if (buf[index.starts[container]] + 2 != buf[i]) {
+                            // the scanners count one kind of bracket and end elsewhere, the enclosing containers
+                            // and everything after are left to them
+                            return index;
+                        }
+                        index.ends[container] = i + 1;
+                        index.nexts[container] = index.count;
+                    }
+                    break;
+            }
+        }
+        return index;
+    }
+
+    // position of the closing quote, the backslash before an escaped quote is preceded by an even number of backslashes
+    static int findStringEnd(byte[] buf, int head, int tail) {
+        for (int i = head; (i = IterImplScan.findQuote(buf, i, tail)) != -1; i++) {
+            int backslashes = 0;
+            for (int j = i - 1; j >= head && buf[j] == '\\'; j--) {
+                backslashes++;
+            }
+            if ((backslashes & 1) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int add(int start) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+            nexts = Arrays.copyOf(nexts, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = -1;
+        nexts[count] = count + 1;
+        return count++;
+    }
+
+    public int containerCount() {
+        return count;
+    }
+
+    /**
+     * skip the container whose opening bracket was just consumed by the iterator
+     *
+     * @return false if the container is not in the index, the caller should scan it
+     */
+    final boolean skipContainer(JsonIterator iter) {
+        if (iter.buf != buf) {
+            return false;
+        }
+        int start = iter.head - 1;
+        // siblings are skipped in order, the next one is usually the container following the last skipped
+        int container = iter.structuralCursor;
+        if (container >= count || starts[container] != start) {
+            container = Arrays.binarySearch(starts, 0, count, start);
+            if (container < 0) {
+                return false;
+            }
+        }
+        int end = ends[container];
+        if (end == -1 || end > iter.tail) {
+            return false;
+        }
+        iter.head = end;
+        iter.structuralCursor = nexts[container];
+        return true;
+    }
+}
@@ -0,0 +1,154 @@
+package com.jsoniter;
+
+/**
+ * Interns TYSON type names into {@link TysonType} handles.
+ * Lookup hashes the annotation bytes in place (same FNV-1a hash as object fields),
+ * so resolving an already known type does not allocate.
+ */
+public final class TypeNameRegistry {
+
+    // stop interning beyond this, so that untrusted input can not grow the registry without bound
+    static final int MAX_INTERNED = 4096;
+
+    // open addressing, copy on write, readers never lock
+    private static volatile TysonType[] table = new TysonType[64];
+    private static volatile TysonType[] byId = new TysonType[64];
+    private static int count;
+
+    static {
+        register(TysonType.STRING);
+        register(TysonType.INTEGER);
+        register(TysonType.DECIMAL);
+        register(TysonType.DOUBLE);
+        register(TysonType.BOOLEAN);
+        register(TysonType.NULL);
+        register(TysonType.OBJECT);
+        register(TysonType.ARRAY);
+    }
+
+    private TypeNameRegistry() {
+    }
+
+    /**
+     * resolve the type name stored in buf[head, tail)
+     *
+     * @param hash FNV-1a hash of the bytes, as computed by IterImpl while scanning
+     */
+    public static TysonType lookup(byte[] buf, int head, int tail, int hash) {
+        TysonType[] table = TypeNameRegistry.table;
+        int mask = table.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            TysonType type = table[i];
+            if (type == null) {
+                break;
+            }
+            if (type.hash == hash && sameBytes(type.nameBytes, buf, head, tail)) {
+                return type;
+            }
+        }
+        return intern(new String(buf, head, tail - head));
+    }
+
+    public static TysonType lookup(String name) {
+        int hash = CodegenImplObjectHash.calcHash(name);
+        TysonType[] table = TypeNameRegistry.table;
+        int mask = table.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            TysonType type = table[i];
+            if (type == null) {
+                break;
+            }
+            if (type.hash == hash && type.name().equals(name)) {
+                return type;
+            }
+        }
+        return intern(name);
+    }
+
+    /**
+     * @return the type registered with the id, null if unknown
+     */
+    public static TysonType byId(int id) {
+        TysonType[] byId = TypeNameRegistry.byId;
+        if (id < 0 || id >= byId.length) {
+            return null;
+        }
+        return byId[id];
+    }
+
+    /**
+     * register a user-defined type up front, so that its id does not depend on input order
+     */
+    public static TysonType register(String name) {
+        return lookup(name);
+    }
+
+    private synchronized static TysonType intern(String name) {
+        int hash = CodegenImplObjectHash.calcHash(name);
+        TysonType[] table = TypeNameRegistry.table;
+        int mask = table.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            TysonType type = table[i];
+            if (type == null) {
+                break;
+            }
+            if (type.hash == hash && type.name().equals(name)) {
+                return type;
+            }
+        }
+        if (count >= MAX_INTERNED) {
+            return new TysonType(-1, name, ValueType.INVALID);
+        }
+        TysonType type = new TysonType(count, name, ValueType.INVALID);
+        register(type);
+        return type;
+    }
+
+    private synchronized static void register(TysonType type) {
+        TysonType[] newTable = table;
+        if ((count + 1) * 2 > newTable.length) {
+            newTable = new TysonType[newTable.length * 2];
+            for (TysonType existing : table) {
+                if (existing != null) {
+                    put(newTable, existing);
+                }
+            }
+        } else {
+            newTable = newTable.clone();
+        }
+        put(newTable, type);
+        TysonType[] newById = byId;
+        if (type.id() >= newById.length) {
+            TysonType[] grown = new TysonType[newById.length * 2];
+            System.arraycopy(newById, 0, grown, 0, newById.length);
+            newById = grown;
+        } else {
+            newById = newById.clone();
+        }
+        newById[type.id()] = type;
+        count++;
+        byId = newById;
+        table = newTable;
+    }
+
+    private static void put(TysonType[] table, TysonType type) {
+        int mask = table.length - 1;
+        int i = type.hash & mask;
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = type;
+    }
+
+    private static boolean sameBytes(byte[] name, byte[] buf, int head, int tail) {
+        if (name.length != tail - head) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (name[i] != buf[head + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,148 @@
+package com.jsoniter;
+
+import com.jsoniter.output.JsonStream;
+import com.jsoniter.output.JsonStreamPool;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.Slice;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Annotates plain JSON with the TYSON types inferred from the lexical form of its atomic values:
+ * integer, decimal or double for numbers, boolean and null. Strings are left as they are.
+ * The input is read once, without binding: atomic values, strings and field names are copied as bytes,
+ * containers are written compactly. Values that are already annotated keep their annotation.
+ */
+public final class TysonAnnotator {
+
+    private TysonAnnotator() {
+    }
+
+    public static String annotate(String input) {
+        JsonStream stream = JsonStreamPool.borrowJsonStream();
+        try {
+            stream.reset(null);
+            annotate(JsonIterator.parse(input), stream);
+            Slice output = stream.buffer();
+            return new String(output.data(), output.head(), output.len());
+        } catch (IOException e) {
+            throw new JsonException(e);
+        } finally {
+            JsonStreamPool.returnJsonStream(stream);
+        }
+    }
+
+    public static void annotate(byte[] input, JsonStream stream) throws IOException {
+        annotate(JsonIterator.parse(input), stream);
+    }
+
+    public static void annotate(InputStream in, JsonStream stream) throws IOException {
+        annotate(JsonIterator.parse(in, 8192), stream);
+    }
+
+    /**
+     * annotate the next value of the iterator, the stream is not flushed
+     */
+    public static void annotate(JsonIterator iter, JsonStream stream) throws IOException {
+        ValueType valueType = iter.whatIsNext();
+        TysonType annotation = iter.typeAnnotatedValueAt == iter.head ? iter.lastTysonType() : null;
+        if (annotation != null) {
+            stream.writeTypeAnnotation(annotation.name());
+        }
+        switch (valueType) {
+            case OBJECT:
+            case USERDEFINEDOBJECT:
+                annotateObject(iter, stream);
+                return;
+            case ARRAY:
+            case USERDEFINEDARRAY:
+                annotateArray(iter, stream);
+                return;
+            case NUMBER:
+                if (annotation == null) {
+                    stream.writeTypeAnnotation(iter.numberType().name());
+                }
+                break;
+            case BOOLEAN:
+                if (annotation == null) {
+                    stream.writeTypeAnnotation(TysonType.BOOLEAN.name());
+                }
+                break;
+            case NULL:
+                if (annotation == null) {
+                    stream.writeTypeAnnotation(TysonType.NULL.name());
+                }
+                break;
+            case INVALID:
+                throw iter.reportError("annotate", "expect value");
+        }
+        copyValue(iter, stream);
+    }
+
+    private static void annotateObject(JsonIterator iter, JsonStream stream) throws IOException {
+        IterImpl.nextToken(iter);
+        stream.write('{');
+        byte c = IterImpl.nextToken(iter);
+        if (c != '}') {
+            iter.unreadByte();
+            for (; ; ) {
+                if (IterImpl.nextToken(iter) != '"') {
+                    throw iter.reportError("annotateObject", "expect \" for field");
+                }
+                iter.unreadByte();
+                copyValue(iter, stream);
+                if (IterImpl.nextToken(iter) != ':') {
+                    throw iter.reportError("annotateObject", "expect : after object field");
+                }
+                stream.write(':');
+                annotate(iter, stream);
+                c = IterImpl.nextToken(iter);
+                if (c == '}') {
+                    break;
+                }
+                if (c != ',') {
+                    throw iter.reportError("annotateObject", "expect , or }");
+                }
+                stream.write(',');
+            }
+        }
+        stream.write('}');
+    }
+
+    private static void annotateArray(JsonIterator iter, JsonStream stream) throws IOException {
+        IterImpl.nextToken(iter);
+        stream.write('[');
+        byte c = IterImpl.nextToken(iter);
+        if (c != ']') {
+            iter.unreadByte();
+            for (; ; ) {
+                annotate(iter, stream);
+                c = IterImpl.nextToken(iter);
+                if (c == ']') {
+                    break;
+                }
+                if (c != ',') {
+                    throw iter.reportError("annotateArray", "expect , or ]");
+                }
+                stream.write(',');
+            }
+        }
+        stream.write(']');
+    }
+
+    // skip the value in front of the iterator, keeping its bytes in the buffer the same way readAny does.
+    // the bytes kept are written to the stream whenever the buffer is reloaded, a large value is not kept whole
+    private static void copyValue(JsonIterator iter, JsonStream stream) throws IOException {
+        iter.skipStartedAt = iter.head;
+        iter.capture = stream;
+        iter.captureLimit = 0;
+        try {
+            IterImplSkip.skip(iter);
+        } finally {
+            iter.capture = null;
+        }
+        stream.write(iter.buf, iter.skipStartedAt, iter.head - iter.skipStartedAt);
+        iter.skipStartedAt = -1;
+    }
+}
@@ -0,0 +1,371 @@
+package com.jsoniter;
+
+import com.jsoniter.output.JsonStream;
+import com.jsoniter.output.JsonStreamPool;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.Slice;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Transcodes TYSON into plain JSON by removing the type annotations, without binding any value.
+ * Bytes between annotations are copied to the stream in bulk. Strings are skipped with the scanner of the iterator,
+ * so that a ( inside a string is never taken for an annotation.
+ * Quoted built-in literals like <code>("boolean") "true"</code> are unquoted when the content is a JSON literal
+ * or number of the annotated type. Anything else, like NaN and INF which have no JSON form, stays a string.
+ */
+public final class TysonTranscoder {
+
+    private static final int VALUE = 0; // copied, outside of strings and annotations
+    private static final int STRING = 1; // copied
+    private static final int ANNOTATION_OPEN = 2; // after (, expect "
+    private static final int ANNOTATION_NAME = 3;
+    private static final int ANNOTATION_CLOSE = 4; // after the type name, expect )
+    private static final int ANNOTATED = 5; // whitespace between ) and the value
+    private static final int QUOTED_LITERAL = 6; // quoted value of a built-in type, kept until its end is known
+    private static final int MAX_BUILT_IN_NAME = 7;
+
+    private final JsonIterator iter;
+    private final JsonStream stream;
+    private int state = VALUE;
+    private boolean escaped; // the previous buffer ended with a backslash inside a string
+    private final byte[] name = new byte[MAX_BUILT_IN_NAME];
+    private int nameLength;
+    private TysonType unquoted; // the number, boolean or null type annotating the value
+    private byte[] literal = new byte[32];
+    private int literalLength;
+
+    private TysonTranscoder(JsonIterator iter, JsonStream stream) {
+        this.iter = iter;
+        this.stream = stream;
+    }
+
+    public static String transcode(String input) {
+        JsonStream stream = JsonStreamPool.borrowJsonStream();
+        try {
+            stream.reset(null);
+            transcode(input.getBytes(), stream);
+            Slice output = stream.buffer();
+            return new String(output.data(), output.head(), output.len());
+        } catch (IOException e) {
+            throw new JsonException(e);
+        } finally {
+            JsonStreamPool.returnJsonStream(stream);
+        }
+    }
+
+    public static void transcode(byte[] input, JsonStream stream) throws IOException {
+        transcode(JsonIterator.parse(input), stream);
+    }
+
+    public static void transcode(InputStream in, JsonStream stream) throws IOException {
+        transcode(in, stream, 8192);
+    }
+
+    /**
+     * the input stream is read by this transcoder only, streaming support of JsonIterator is not required
+     */
+    public static void transcode(InputStream in, JsonStream stream, int bufSize) throws IOException {
+        JsonIterator iter = new JsonIterator();
+        iter.in = in;
+        iter.buf = new byte[bufSize];
+        transcode(iter, stream);
+    }
+
+    /**
+     * transcode everything left in the iterator, the stream is not flushed
+     */
+    public static void transcode(JsonIterator iter, JsonStream stream) throws IOException {
+        TysonTranscoder transcoder = new TysonTranscoder(iter, stream);
+        do {
+            transcoder.transcodeBuffer();
+        } while (transcoder.loadMore());
+        if (transcoder.state != VALUE) {
+            throw iter.reportError("transcode", "incomplete TYSON input");
+        }
+    }
+
+    private void transcodeBuffer() throws IOException {
+        byte[] buf = iter.buf;
+        int tail = iter.tail;
+        int i = iter.head;
+        int runStart = i; // buf[runStart, i) is copied when the run ends
+        while (i < tail) {
+            int end;
+            switch (state) {
+                case VALUE:
+                    for (; i < tail; i++) {
+                        byte c = buf[i];
+                        if (c == '"') {
+                            state = STRING;
+                            i++;
+                            break;
+                        }
+                        if (c == '(') {
+                            stream.write(buf, runStart, i - runStart);
+                            state = ANNOTATION_OPEN;
+                            i++;
+                            break;
+                        }
+                    }
+                    break;
+                case STRING:
+                    end = findStringEnd(i);
+                    if (end == -1) {
+                        i = tail;
+                    } else {
+                        i = end;
+                        state = VALUE;
+                    }
+                    break;
+                case ANNOTATION_OPEN:
+                    i = skipWhitespaces(i);
+                    if (i < tail) {
+                        if (buf[i] != '"') {
+                            throw reportError(i, "expect \" after (");
+                        }
+                        nameLength = 0;
+                        state = ANNOTATION_NAME;
+                        i++;
+                    }
+                    break;
+                case ANNOTATION_NAME:
+                    end = findStringEnd(i);
+                    appendName(i, end == -1 ? tail : end - 1);
+                    if (end == -1) {
+                        i = tail;
+                    } else {
+                        i = end;
+                        state = ANNOTATION_CLOSE;
+                    }
+                    break;
+                case ANNOTATION_CLOSE:
+                    i = skipWhitespaces(i);
+                    if (i < tail) {
+                        if (buf[i] != ')') {
+                            throw reportError(i, "expect )");
+                        }
+                        unquoted = unquotedBuiltIn();
+                        state = ANNOTATED;
+                        i++;
+                    }
+                    break;
+                case ANNOTATED:
+                    i = skipWhitespaces(i);
+                    if (i < tail) {
+                        if (unquoted != null && buf[i] == '"') {
+                            literalLength = 0;
+                            state = QUOTED_LITERAL;
+                            i++;
+                        } else {
+                            state = VALUE;
+                            runStart = i;
+                        }
+                    }
+                    break;
+                case QUOTED_LITERAL:
+                    end = findStringEnd(i);
+                    appendLiteral(i, end == -1 ? tail : end - 1);
+                    if (end == -1) {
+                        i = tail;
+                    } else {
+                        writeLiteral();
+                        i = end;
+                        state = VALUE;
+                        runStart = i;
+                    }
+                    break;
+            }
+        }
+        if (state == VALUE || state == STRING) {
+            stream.write(buf, runStart, tail - runStart);
+        }
+        iter.head = tail;
+    }
+
+    // returns the position after the closing quote, -1 if the string continues in the next buffer
+    private int findStringEnd(int i) {
+        if (escaped) {
+            escaped = false;
+            i++;
+        }
+        iter.head = i;
+        int end = IterImplSkip.findStringEnd(iter);
+        if (end == -1) {
+            // odd number of trailing backslashes escapes the first byte of the next buffer
+            for (int j = iter.tail - 1; j >= i && iter.buf[j] == '\\'; j--) {
+                escaped = !escaped;
+            }
+        }
+        return end;
+    }
+
+    private int skipWhitespaces(int i) {
+        for (; i < iter.tail; i++) {
+            switch (iter.buf[i]) {
+                case ' ':
+                case '\n':
+                case '\t':
+                case '\r':
+                    continue;
+            }
+            break;
+        }
+        return i;
+    }
+
+    private void appendName(int head, int tail) {
+        for (int i = head; i < tail; i++) {
+            if (nameLength < name.length) {
+                name[nameLength] = iter.buf[i];
+            }
+            nameLength++;
+        }
+    }
+
+    // built-in types whose values are written without quotes in JSON, null for other types
+    private TysonType unquotedBuiltIn() {
+        if (nameLength > name.length) {
+            return null;
+        }
+        for (int id = 0; id < TysonType.BUILT_IN_COUNT; id++) {
+            TysonType type = TypeNameRegistry.byId(id);
+            switch (type.valueType()) {
+                case NUMBER:
+                case BOOLEAN:
+                case NULL:
+                    if (sameName(type.nameBytes)) {
+                        return type;
+                    }
+            }
+        }
+        return null;
+    }
+
+    private boolean sameName(byte[] typeName) {
+        if (typeName.length != nameLength) {
+            return false;
+        }
+        for (int i = 0; i < nameLength; i++) {
+            if (typeName[i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendLiteral(int head, int tail) {
+        int len = tail - head;
+        if (literalLength + len > literal.length) {
+            byte[] newLiteral = new byte[Math.max(literal.length * 2, literalLength + len)];
+            System.arraycopy(literal, 0, newLiteral, 0, literalLength);
+            literal = newLiteral;
+        }
+        System.arraycopy(iter.buf, head, literal, literalLength, len);
+        literalLength += len;
+    }
+
+    private void writeLiteral() throws IOException {
+        if (keepQuoted()) {
+            stream.write('"');
+            stream.write(literal, 0, literalLength);
+            stream.write('"');
+        } else {
+            stream.write(literal, 0, literalLength);
+        }
+    }
+
+    private boolean keepQuoted() {
+        switch (unquoted.valueType()) {
+            case BOOLEAN:
+                int kind = classifyLiteral();
+                return kind != QuotedLiteral.TRUE && kind != QuotedLiteral.FALSE;
+            case NULL:
+                return classifyLiteral() != QuotedLiteral.NULL;
+            default:
+                return !isNumber(unquoted);
+        }
+    }
+
+    private int classifyLiteral() {
+        if (literalLength > QuotedLiteral.MAX_LENGTH) {
+            return QuotedLiteral.STRING;
+        }
+        long packed = 0;
+        for (int i = 0; i < literalLength; i++) {
+            packed = QuotedLiteral.pack(packed, literal[i]);
+        }
+        return QuotedLiteral.classify(packed, literalLength);
+    }
+
+    // a JSON number, of the lexical form of the type: integer has no fraction, only double has an exponent
+    private boolean isNumber(TysonType type) {
+        int i = 0;
+        if (i < literalLength && literal[i] == '-') {
+            i++;
+        }
+        int start = i;
+        if (i < literalLength && literal[i] == '0') {
+            i++;
+        } else {
+            i = skipDigits(i);
+        }
+        if (i == start) {
+            return false;
+        }
+        if (type == TysonType.INTEGER) {
+            return i == literalLength;
+        }
+        if (i < literalLength && literal[i] == '.') {
+            start = ++i;
+            i = skipDigits(i);
+            if (i == start) {
+                return false;
+            }
+        }
+        if (type == TysonType.DECIMAL) {
+            return i == literalLength;
+        }
+        if (i < literalLength && (literal[i] == 'e' || literal[i] == 'E')) {
+            i++;
+            if (i < literalLength && (literal[i] == '+' || literal[i] == '-')) {
+                i++;
+            }
+            start = i;
+            i = skipDigits(i);
+            if (i == start) {
+                return false;
+            }
+        }
+        return i == literalLength;
+    }
+
+    private int skipDigits(int i) {
+        while (i < literalLength && literal[i] >= '0' && literal[i] <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private JsonException reportError(int i, String msg) {
+        iter.head = i;
+        return iter.reportError("transcode", msg);
+    }
+
+    private boolean loadMore() throws IOException {
+        if (iter.in == null) {
+            return false;
+        }
+        int n = iter.in.read(iter.buf);
+        if (n < 1) {
+            if (n == -1) {
+                return false;
+            }
+            throw iter.reportError("loadMore", "read from input stream returned " + n);
+        }
+        iter.head = 0;
+        iter.tail = n;
+        return true;
+    }
+}
@@ -0,0 +1,63 @@
+package com.jsoniter;
+
+/**
+ * Canonical handle of a TYSON type annotation such as <code>("integer")</code> or <code>("person")</code>.
+ * Handles are interned by {@link TypeNameRegistry}, so two annotations naming the same type
+ * resolve to the same instance and can be compared by reference or by {@link #id()}.
+ */
+public final class TysonType {
+
+    public static final TysonType STRING = new TysonType(0, "string", ValueType.STRING);
+    public static final TysonType INTEGER = new TysonType(1, "integer", ValueType.NUMBER);
+    public static final TysonType DECIMAL = new TysonType(2, "decimal", ValueType.NUMBER);
+    public static final TysonType DOUBLE = new TysonType(3, "double", ValueType.NUMBER);
+    public static final TysonType BOOLEAN = new TysonType(4, "boolean", ValueType.BOOLEAN);
+    public static final TysonType NULL = new TysonType(5, "null", ValueType.NULL);
+    public static final TysonType OBJECT = new TysonType(6, "object", ValueType.OBJECT);
+    public static final TysonType ARRAY = new TysonType(7, "array", ValueType.ARRAY);
+    static final int BUILT_IN_COUNT = 8;
+
+    private final int id;
+    private final String name;
+    private final ValueType valueType;
+    final String quotedName;
+    final byte[] nameBytes;
+    final int hash;
+
+    TysonType(int id, String name, ValueType valueType) {
+        this.id = id;
+        this.name = name;
+        this.quotedName = '"' + name + '"';
+        this.valueType = valueType;
+        this.nameBytes = name.getBytes();
+        this.hash = CodegenImplObjectHash.calcHash(name);
+    }
+
+    /**
+     * @return stable id, built-in types use 0 ~ 7, user-defined types are numbered in order of first sight.
+     * -1 if the registry was full and the type has not been interned
+     */
+    public int id() {
+        return id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public boolean isBuiltIn() {
+        return id >= 0 && id < BUILT_IN_COUNT;
+    }
+
+    /**
+     * @return the value type a built-in annotation admits, INVALID for user-defined types
+     */
+    public ValueType valueType() {
+        return valueType;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
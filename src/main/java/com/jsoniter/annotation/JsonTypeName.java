@@ -0,0 +1,16 @@
+package com.jsoniter.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JsonTypeName {
+
+    /**
+     * @return TYSON type name written in front of the object, as in ("person") {...}
+     */
+    String value();
+}
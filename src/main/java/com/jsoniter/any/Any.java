@@ -2,11 +2,13 @@ package com.jsoniter.any;
 
 import com.jsoniter.output.CodegenAccess;
 import com.jsoniter.spi.JsonException;
+import com.jsoniter.StructuralIndex;
 import com.jsoniter.ValueType;
 import com.jsoniter.output.JsonStream;
 import com.jsoniter.spi.Encoder;
 import com.jsoniter.spi.TypeLiteral;
 
+import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -45,11 +47,13 @@ public abstract class Any implements Iterable<Any> {
         JsonStream.registerNativeEncoder(ObjectLazyAny.class, anyEncoder);
         JsonStream.registerNativeEncoder(StringAny.class, anyEncoder);
         JsonStream.registerNativeEncoder(StringLazyAny.class, anyEncoder);
+        JsonStream.registerNativeEncoder(LiteralLazyAny.class, anyEncoder);
         JsonStream.registerNativeEncoder(ArrayAny.class, anyEncoder);
         JsonStream.registerNativeEncoder(ObjectAny.class, anyEncoder);
         JsonStream.registerNativeEncoder(ListWrapperAny.class, anyEncoder);
         JsonStream.registerNativeEncoder(ArrayWrapperAny.class, anyEncoder);
         JsonStream.registerNativeEncoder(MapWrapperAny.class, anyEncoder);
+        JsonStream.registerNativeEncoder(SpilledAny.class, anyEncoder);
     }
 
     public static Any wrapArray(Object val) {
@@ -100,6 +104,13 @@ public abstract class Any implements Iterable<Any> {
 
     public abstract ValueType valueType();
 
+    /**
+     * @return name of the TYSON type annotation in front of the value, null if the value is not annotated
+     */
+    public String typeName() {
+        return null;
+    }
+
     public <T> T bindTo(T obj, Object... keys) {
         return get(keys).bindTo(obj);
     }
@@ -261,23 +272,63 @@ public abstract class Any implements Iterable<Any> {
     }
 
     public static Any lazyString(byte[] data, int head, int tail) {
-        return new StringLazyAny(data, head, tail);
+        return new StringLazyAny(data, head, head, tail);
+    }
+
+    public static Any lazyString(byte[] data, int annotationHead, int head, int tail) {
+        return new StringLazyAny(data, annotationHead, head, tail);
     }
 
     public static Any lazyDouble(byte[] data, int head, int tail) {
-        return new DoubleLazyAny(data, head, tail);
+        return new DoubleLazyAny(data, head, head, tail);
+    }
+
+    public static Any lazyDouble(byte[] data, int annotationHead, int head, int tail) {
+        return new DoubleLazyAny(data, annotationHead, head, tail);
     }
 
     public static Any lazyLong(byte[] data, int head, int tail) {
-        return new LongLazyAny(data, head, tail);
+        return new LongLazyAny(data, head, head, tail);
+    }
+
+    public static Any lazyLong(byte[] data, int annotationHead, int head, int tail) {
+        return new LongLazyAny(data, annotationHead, head, tail);
     }
 
     public static Any lazyArray(byte[] data, int head, int tail) {
-        return new ArrayLazyAny(data, head, tail);
+        return new ArrayLazyAny(data, head, head, tail);
+    }
+
+    public static Any lazyArray(byte[] data, int annotationHead, int head, int tail) {
+        return new ArrayLazyAny(data, annotationHead, head, tail);
+    }
+
+    public static Any lazyArray(byte[] data, int annotationHead, int head, int tail, StructuralIndex index) {
+        return new ArrayLazyAny(data, annotationHead, head, tail, index);
     }
 
     public static Any lazyObject(byte[] data, int head, int tail) {
-        return new ObjectLazyAny(data, head, tail);
+        return new ObjectLazyAny(data, head, head, tail);
+    }
+
+    public static Any lazyObject(byte[] data, int annotationHead, int head, int tail) {
+        return new ObjectLazyAny(data, annotationHead, head, tail);
+    }
+
+    public static Any lazyObject(byte[] data, int annotationHead, int head, int tail, StructuralIndex index) {
+        return new ObjectLazyAny(data, annotationHead, head, tail, index);
+    }
+
+    public static Any lazyLiteral(byte[] data, int annotationHead, int head, int tail) {
+        return new LiteralLazyAny(data, annotationHead, head, tail);
+    }
+
+    /**
+     * @param file      owned by the returned Any, the string, array or object, preceded by its ("type") annotation if annotated
+     * @param threshold elements and field values larger than that are read from the file in place, smaller ones in memory
+     */
+    public static Any spilled(File file, boolean annotated, ValueType valueType, int threshold) {
+        return new SpilledAny(file, annotated, valueType, threshold);
     }
 
     public static Any wrap(int val) {
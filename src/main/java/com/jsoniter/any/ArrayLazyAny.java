@@ -19,8 +19,13 @@ class ArrayLazyAny extends LazyAny {
     private List<Any> cache;
     private int lastParsedPos;
 
-    public ArrayLazyAny(byte[] data, int head, int tail) {
-        super(data, head, tail);
+    public ArrayLazyAny(byte[] data, int annotationHead, int head, int tail) {
+        super(data, annotationHead, head, tail);
+        lastParsedPos = head;
+    }
+
+    public ArrayLazyAny(byte[] data, int annotationHead, int head, int tail, StructuralIndex index) {
+        super(data, annotationHead, head, tail, index);
         lastParsedPos = head;
     }
 
@@ -136,7 +141,7 @@ class ArrayLazyAny extends LazyAny {
         }
         JsonIterator iter = JsonIteratorPool.borrowJsonIterator();
         try {
-            iter.reset(data, lastParsedPos, tail);
+            iter.reset(data, lastParsedPos, tail, index);
             if (lastParsedPos == head) {
                 if (!CodegenAccess.readArrayStart(iter)) {
                     lastParsedPos = tail;
@@ -168,7 +173,7 @@ class ArrayLazyAny extends LazyAny {
         }
         JsonIterator iter = JsonIteratorPool.borrowJsonIterator();
         try {
-            iter.reset(data, lastParsedPos, tail);
+            iter.reset(data, lastParsedPos, tail, index);
             if (lastParsedPos == head) {
                 if (!CodegenAccess.readArrayStart(iter)) {
                     lastParsedPos = tail;
@@ -246,6 +251,7 @@ class ArrayLazyAny extends LazyAny {
         } else {
             // there might be modification
             fillCache();
+            writeAnnotationTo(stream);
             stream.writeVal(typeLiteral, cache);
         }
     }
@@ -14,8 +14,8 @@ class DoubleLazyAny extends LazyAny {
     private boolean isCached;
     private double cache;
 
-    public DoubleLazyAny(byte[] data, int head, int tail) {
-        super(data, head, tail);
+    public DoubleLazyAny(byte[] data, int annotationHead, int head, int tail) {
+        super(data, annotationHead, head, tail);
     }
 
     @Override
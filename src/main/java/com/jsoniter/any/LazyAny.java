@@ -3,6 +3,8 @@ package com.jsoniter.any;
 import com.jsoniter.JsonIteratorPool;
 import com.jsoniter.spi.JsonException;
 import com.jsoniter.JsonIterator;
+import com.jsoniter.StructuralIndex;
+import com.jsoniter.TysonType;
 import com.jsoniter.ValueType;
 import com.jsoniter.output.JsonStream;
 import com.jsoniter.spi.TypeLiteral;
@@ -12,13 +14,24 @@ import java.io.IOException;
 abstract class LazyAny extends Any {
 
     protected final byte[] data;
+    // start of the ("type") annotation, same as head if the value is not annotated
+    protected final int annotationHead;
     protected final int head;
     protected final int tail;
+    // containers of data, shared with the iterator the value was read from, null if not indexed
+    protected final StructuralIndex index;
+    private TysonType tysonType;
 
-    public LazyAny(byte[] data, int head, int tail) {
+    public LazyAny(byte[] data, int annotationHead, int head, int tail) {
+        this(data, annotationHead, head, tail, null);
+    }
+
+    public LazyAny(byte[] data, int annotationHead, int head, int tail, StructuralIndex index) {
         this.data = data;
+        this.annotationHead = annotationHead;
         this.head = head;
         this.tail = tail;
+        this.index = index;
     }
 
     public abstract ValueType valueType();
@@ -67,18 +80,43 @@ abstract class LazyAny extends Any {
         }
     }
 
+    @Override
+    public String typeName() {
+        if (annotationHead == head) {
+            return null;
+        }
+        if (tysonType == null) {
+            JsonIterator iter = JsonIteratorPool.borrowJsonIterator();
+            iter.reset(data, annotationHead, head);
+            try {
+                tysonType = iter.readTysonType();
+            } catch (IOException e) {
+                throw new JsonException(e);
+            } finally {
+                JsonIteratorPool.returnJsonIterator(iter);
+            }
+        }
+        return tysonType.name();
+    }
+
     public String toString() {
         return new String(data, head, tail - head).trim();
     }
 
     protected final JsonIterator parse() {
         JsonIterator iter = JsonIteratorPool.borrowJsonIterator();
-        iter.reset(data, head, tail);
+        iter.reset(data, head, tail, index);
         return iter;
     }
 
     @Override
     public void writeTo(JsonStream stream) throws IOException {
-        stream.write(data, head, tail - head);
+        stream.write(data, annotationHead, tail - annotationHead);
+    }
+
+    protected final void writeAnnotationTo(JsonStream stream) throws IOException {
+        if (annotationHead != head) {
+            stream.write(data, annotationHead, head - annotationHead);
+        }
     }
 }
@@ -0,0 +1,80 @@
+package com.jsoniter.any;
+
+import com.jsoniter.ValueType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+// annotated true, false or null, quoted or not, kept as bytes so that the annotation can be written back
+class LiteralLazyAny extends LazyAny {
+
+    private final Any literal;
+
+    public LiteralLazyAny(byte[] data, int annotationHead, int head, int tail) {
+        super(data, annotationHead, head, tail);
+        int i = head;
+        while (data[i] == ' ' || data[i] == '\n' || data[i] == '\t' || data[i] == '\r' || data[i] == '"') {
+            i++;
+        }
+        switch (data[i]) {
+            case 't':
+                literal = TrueAny.INSTANCE;
+                break;
+            case 'f':
+                literal = FalseAny.INSTANCE;
+                break;
+            default:
+                literal = NullAny.INSTANCE;
+        }
+    }
+
+    @Override
+    public ValueType valueType() {
+        return literal.valueType();
+    }
+
+    @Override
+    public Object object() {
+        return literal.object();
+    }
+
+    @Override
+    public boolean toBoolean() {
+        return literal.toBoolean();
+    }
+
+    @Override
+    public int toInt() {
+        return literal.toInt();
+    }
+
+    @Override
+    public long toLong() {
+        return literal.toLong();
+    }
+
+    @Override
+    public float toFloat() {
+        return literal.toFloat();
+    }
+
+    @Override
+    public double toDouble() {
+        return literal.toDouble();
+    }
+
+    @Override
+    public BigInteger toBigInteger() {
+        return literal.toBigInteger();
+    }
+
+    @Override
+    public BigDecimal toBigDecimal() {
+        return literal.toBigDecimal();
+    }
+
+    @Override
+    public String toString() {
+        return literal.toString();
+    }
+}
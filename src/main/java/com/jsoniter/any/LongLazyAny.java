@@ -14,8 +14,8 @@ class LongLazyAny extends LazyAny {
     private boolean isCached;
     private long cache;
 
-    public LongLazyAny(byte[] data, int head, int tail) {
-        super(data, head, tail);
+    public LongLazyAny(byte[] data, int annotationHead, int head, int tail) {
+        super(data, annotationHead, head, tail);
     }
 
     @Override
@@ -19,8 +19,13 @@ class ObjectLazyAny extends LazyAny {
     private Map<String, Any> cache;
     private int lastParsedPos;
 
-    public ObjectLazyAny(byte[] data, int head, int tail) {
-        super(data, head, tail);
+    public ObjectLazyAny(byte[] data, int annotationHead, int head, int tail) {
+        super(data, annotationHead, head, tail);
+        lastParsedPos = head;
+    }
+
+    public ObjectLazyAny(byte[] data, int annotationHead, int head, int tail, StructuralIndex index) {
+        super(data, annotationHead, head, tail, index);
         lastParsedPos = head;
     }
 
@@ -137,7 +142,7 @@ class ObjectLazyAny extends LazyAny {
         }
         JsonIterator iter = JsonIteratorPool.borrowJsonIterator();
         try {
-            iter.reset(data, lastParsedPos, tail);
+            iter.reset(data, lastParsedPos, tail, index);
             if (lastParsedPos == head) {
                 if (!CodegenAccess.readObjectStart(iter)) {
                     lastParsedPos = tail;
@@ -178,7 +183,7 @@ class ObjectLazyAny extends LazyAny {
         }
         JsonIterator iter = JsonIteratorPool.borrowJsonIterator();
         try {
-            iter.reset(data, lastParsedPos, tail);
+            iter.reset(data, lastParsedPos, tail, index);
             if (lastParsedPos == head) {
                 if (!CodegenAccess.readObjectStart(iter)) {
                     lastParsedPos = tail;
@@ -220,7 +225,7 @@ class ObjectLazyAny extends LazyAny {
                 if (lastParsedPos == head) {
                     JsonIterator iter = JsonIteratorPool.borrowJsonIterator();
                     try {
-                        iter.reset(data, lastParsedPos, tail);
+                        iter.reset(data, lastParsedPos, tail, index);
                         if (!CodegenAccess.readObjectStart(iter)) {
                             lastParsedPos = tail;
                         } else {
@@ -252,7 +257,7 @@ class ObjectLazyAny extends LazyAny {
             }
             JsonIterator iter = JsonIteratorPool.borrowJsonIterator();
             try {
-                iter.reset(data, lastParsedPos, tail);
+                iter.reset(data, lastParsedPos, tail, index);
                 key = CodegenAccess.readObjectFieldAsString(iter);
                 value = iter.readAny();
                 cache.put(key, value);
@@ -287,6 +292,7 @@ class ObjectLazyAny extends LazyAny {
         } else {
             // there might be modification
             fillCache();
+            writeAnnotationTo(stream);
             stream.writeVal(typeLiteral, (Map) cache);
         }
     }
@@ -0,0 +1,626 @@
+package com.jsoniter.any;
+
+import com.jsoniter.CodegenAccess;
+import com.jsoniter.JsonIterator;
+import com.jsoniter.ValueType;
+import com.jsoniter.output.JsonStream;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.TypeLiteral;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// a string, array or object read from a stream and too large to be kept in memory, its bytes are a region of a file.
+// the values are read by a cursor going through the region in streaming mode: in memory if small, otherwise
+// as a spilled Any sharing the file. the first access by index counts the elements and keeps a bounded number
+// of positions, an element is read from the closest one. fields are found by going through the object, iterating
+// goes through the region once with a single open file. only the conversions of the whole value read it in memory.
+// closing the Any the file was spilled for deletes the file, otherwise it is deleted once no Any refers to it
+class SpilledAny extends Any implements Closeable {
+
+    private static final int MIN_BUF_SIZE = 512;
+    private final SpilledFile spilled;
+    private final long start;
+    private final long end;
+    private final boolean annotated;
+    private final ValueType valueType;
+    private final int threshold;
+    private final boolean owner;
+    private Index index;
+
+    SpilledAny(File file, boolean annotated, ValueType valueType, int threshold) {
+        this(new SpilledFile(file), 0, file.length(), annotated, valueType, threshold, true);
+    }
+
+    private SpilledAny(SpilledFile spilled, long start, long end, boolean annotated, ValueType valueType,
+                       int threshold, boolean owner) {
+        this.spilled = spilled;
+        this.start = start;
+        this.end = end;
+        this.annotated = annotated;
+        this.valueType = valueType;
+        this.threshold = threshold;
+        this.owner = owner;
+    }
+
+    /**
+     * delete the file if this Any was spilled by the iterator, the Any navigated from it can not be read anymore.
+     * closing an element or field value of a spilled Any does nothing
+     */
+    @Override
+    public void close() {
+        if (owner) {
+            spilled.delete();
+        }
+    }
+
+    @Override
+    public ValueType valueType() {
+        return valueType;
+    }
+
+    @Override
+    public String typeName() {
+        if (!annotated) {
+            return null;
+        }
+        JsonIterator iter = JsonIterator.parse(region(), bufSize());
+        try {
+            return iter.readTysonType().name();
+        } catch (IOException e) {
+            throw new JsonException(e);
+        } finally {
+            close(iter);
+        }
+    }
+
+    @Override
+    public Object object() {
+        return load().object();
+    }
+
+    @Override
+    public boolean toBoolean() {
+        if (valueType == ValueType.STRING) {
+            return load().toBoolean();
+        }
+        return size() != 0;
+    }
+
+    @Override
+    public int toInt() {
+        return valueType == ValueType.STRING ? load().toInt() : size();
+    }
+
+    @Override
+    public long toLong() {
+        return valueType == ValueType.STRING ? load().toLong() : size();
+    }
+
+    @Override
+    public float toFloat() {
+        return valueType == ValueType.STRING ? load().toFloat() : size();
+    }
+
+    @Override
+    public double toDouble() {
+        return valueType == ValueType.STRING ? load().toDouble() : size();
+    }
+
+    @Override
+    public BigInteger toBigInteger() {
+        return valueType == ValueType.STRING ? load().toBigInteger() : BigInteger.valueOf(size());
+    }
+
+    @Override
+    public BigDecimal toBigDecimal() {
+        return valueType == ValueType.STRING ? load().toBigDecimal() : BigDecimal.valueOf(size());
+    }
+
+    @Override
+    public String toString() {
+        return load().toString();
+    }
+
+    @Override
+    public <T> T bindTo(T obj) {
+        JsonIterator iter = open(region());
+        try {
+            return iter.read(obj);
+        } catch (IOException e) {
+            throw new JsonException(e);
+        } finally {
+            close(iter);
+        }
+    }
+
+    @Override
+    public <T> T bindTo(TypeLiteral<T> typeLiteral, T obj) {
+        JsonIterator iter = open(region());
+        try {
+            return iter.read(typeLiteral, obj);
+        } catch (IOException e) {
+            throw new JsonException(e);
+        } finally {
+            close(iter);
+        }
+    }
+
+    @Override
+    public <T> T as(Class<T> clazz) {
+        JsonIterator iter = open(region());
+        try {
+            return iter.read(clazz);
+        } catch (IOException e) {
+            throw new JsonException(e);
+        } finally {
+            close(iter);
+        }
+    }
+
+    @Override
+    public <T> T as(TypeLiteral<T> typeLiteral) {
+        JsonIterator iter = open(region());
+        try {
+            return iter.read(typeLiteral);
+        } catch (IOException e) {
+            throw new JsonException(e);
+        } finally {
+            close(iter);
+        }
+    }
+
+    @Override
+    public int size() {
+        if (valueType == ValueType.STRING) {
+            return 0;
+        }
+        return index().count;
+    }
+
+    @Override
+    public Set<String> keys() {
+        if (valueType != ValueType.OBJECT) {
+            return EMPTY_KEYS;
+        }
+        Set<String> keys = new LinkedHashSet<String>();
+        Cursor cursor = new Cursor(0);
+        try {
+            while (cursor.next()) {
+                keys.add(cursor.field);
+            }
+        } finally {
+            cursor.close();
+        }
+        return keys;
+    }
+
+    @Override
+    public Iterator<Any> iterator() {
+        if (valueType != ValueType.ARRAY) {
+            return EMPTY_ITERATOR;
+        }
+        return new ElementIterator();
+    }
+
+    @Override
+    public EntryIterator entries() {
+        if (valueType != ValueType.OBJECT) {
+            return EMPTY_ENTRIES_ITERATOR;
+        }
+        return new FieldIterator();
+    }
+
+    @Override
+    public Any get(int index) {
+        if (valueType == ValueType.ARRAY && index >= 0) {
+            Index scanned = index();
+            if (index < scanned.count) {
+                // from the closest recorded position, at most stride elements are skipped
+                int checkpoint = index / scanned.stride;
+                Cursor cursor = new Cursor(checkpoint);
+                try {
+                    for (int i = checkpoint * scanned.stride; i <= index; i++) {
+                        cursor.next();
+                    }
+                    return cursor.value();
+                } finally {
+                    cursor.close();
+                }
+            }
+        }
+        return new NotFoundAny(index, spilled.file);
+    }
+
+    @Override
+    public Any get(Object key) {
+        if (valueType == ValueType.OBJECT) {
+            // the first of duplicated fields, like the other lazy objects
+            Cursor cursor = new Cursor(0);
+            try {
+                while (cursor.next()) {
+                    if (cursor.field.equals(key)) {
+                        return cursor.value();
+                    }
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        return new NotFoundAny(key, spilled.file);
+    }
+
+    @Override
+    public Any get(Object[] keys, int idx) {
+        if (idx == keys.length) {
+            return this;
+        }
+        Object key = keys[idx];
+        if (isWildcard(key) && valueType == ValueType.ARRAY) {
+            ArrayList<Any> result = new ArrayList<Any>();
+            for (Any element : this) {
+                Any mapped = element.get(keys, idx + 1);
+                if (mapped.valueType() != ValueType.INVALID) {
+                    result.add(mapped);
+                }
+            }
+            return Any.rewrap(result);
+        }
+        if (isWildcard(key) && valueType == ValueType.OBJECT) {
+            HashMap<String, Any> result = new HashMap<String, Any>();
+            EntryIterator entries = entries();
+            while (entries.next()) {
+                Any mapped = entries.value().get(keys, idx + 1);
+                if (mapped.valueType() != ValueType.INVALID) {
+                    result.put(entries.key(), mapped);
+                }
+            }
+            return Any.rewrap(result);
+        }
+        Any child;
+        if (valueType == ValueType.ARRAY) {
+            child = key instanceof Integer ? get(((Integer) key).intValue()) : null;
+        } else {
+            child = get(key);
+        }
+        if (child == null || child.valueType() == ValueType.INVALID) {
+            return new NotFoundAny(keys, idx, spilled.file);
+        }
+        return child.get(keys, idx + 1);
+    }
+
+    @Override
+    public void writeTo(JsonStream stream) throws IOException {
+        Region in = region();
+        try {
+            byte[] buf = new byte[bufSize()];
+            for (int n = in.read(buf); n != -1; n = in.read(buf)) {
+                stream.write(buf, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private int bufSize() {
+        return Math.max(threshold, MIN_BUF_SIZE);
+    }
+
+    private Region region() {
+        try {
+            return new Region(spilled.file, start, end);
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    // in front of the value, after the annotation
+    private JsonIterator open(Region in) {
+        JsonIterator iter = JsonIterator.parse(in, bufSize());
+        if (annotated) {
+            try {
+                iter.readTysonType();
+            } catch (IOException e) {
+                close(iter);
+                throw new JsonException(e);
+            }
+        }
+        return iter;
+    }
+
+    // the whole value in memory, with its annotation
+    private Any load() {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new JsonException("value of " + (end - start) + " bytes does not fit in memory");
+        }
+        Region in = region();
+        try {
+            return JsonIterator.deserialize(in.read(start, end));
+        } catch (IOException e) {
+            throw new JsonException(e);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // read in full or not at all, nothing is lost
+            }
+        }
+    }
+
+    private static void close(JsonIterator iter) {
+        try {
+            iter.close();
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    // scanned once, only the position of one element or field in stride is kept
+    private synchronized Index index() {
+        if (index != null) {
+            return index;
+        }
+        Index scanned = new Index();
+        Cursor cursor = new Cursor(0);
+        try {
+            for (long before = cursor.position(); cursor.next(); before = cursor.position()) {
+                scanned.add(before);
+            }
+        } finally {
+            cursor.close();
+        }
+        index = scanned;
+        return scanned;
+    }
+
+    // positions in front of the separator introducing an element or field: [ or { for the first one, then ,
+    private static class Index {
+
+        private static final int MAX_CHECKPOINTS = 1024;
+
+        int count;
+        int stride = 1;
+        final long[] checkpoints = new long[MAX_CHECKPOINTS];
+
+        void add(long position) {
+            if (count % stride == 0) {
+                if (count / stride == MAX_CHECKPOINTS) {
+                    // full, keep every other position: heap use does not grow with the number of elements
+                    for (int i = 0; i < MAX_CHECKPOINTS / 2; i++) {
+                        checkpoints[i] = checkpoints[i * 2];
+                    }
+                    stride *= 2;
+                }
+                if (count % stride == 0) {
+                    checkpoints[count / stride] = position;
+                }
+            }
+            count++;
+        }
+    }
+
+    // reads the elements or fields one after the other through a single open file
+    private class Cursor implements Closeable {
+
+        private final Region in;
+        private final JsonIterator iter;
+        String field;
+        private long childStart;
+        private long childEnd;
+        private boolean childAnnotated;
+        private byte first; // of the value, after its annotation
+
+        // in front of the element or field at the checkpoint, see Index
+        Cursor(int checkpoint) {
+            if (checkpoint == 0) {
+                in = region();
+                iter = open(in);
+            } else {
+                try {
+                    in = new Region(spilled.file, index.checkpoints[checkpoint], end);
+                } catch (IOException e) {
+                    throw new JsonException(e);
+                }
+                iter = JsonIterator.parse(in, bufSize());
+            }
+        }
+
+        long position() {
+            return in.position(iter);
+        }
+
+        // to the next element or field, skipped after recording where its value is. false at the end
+        boolean next() {
+            try {
+                if (valueType == ValueType.ARRAY) {
+                    if (!iter.readArray()) {
+                        return false;
+                    }
+                } else {
+                    field = iter.readObject();
+                    if (field == null) {
+                        return false;
+                    }
+                }
+                childStart = in.position(iter);
+                first = CodegenAccess.nextToken(iter);
+                CodegenAccess.unreadByte(iter);
+                childAnnotated = first == '(';
+                if (childAnnotated) {
+                    iter.readTysonType();
+                    first = CodegenAccess.nextToken(iter);
+                    CodegenAccess.unreadByte(iter);
+                }
+                iter.skip();
+                childEnd = in.position(iter);
+                return true;
+            } catch (IOException e) {
+                throw new JsonException(e);
+            }
+        }
+
+        // the value the cursor was moved past: in memory if small, otherwise a spilled Any sharing the file
+        Any value() {
+            if (childEnd - childStart > threshold && (first == '"' || first == '[' || first == '{')) {
+                ValueType childType = first == '"' ? ValueType.STRING : first == '[' ? ValueType.ARRAY : ValueType.OBJECT;
+                return new SpilledAny(spilled, childStart, childEnd, childAnnotated, childType, threshold, false);
+            }
+            try {
+                return JsonIterator.deserialize(in.read(childStart, childEnd));
+            } catch (IOException e) {
+                throw new JsonException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            SpilledAny.close(iter);
+        }
+    }
+
+    // the bytes [start, end) of the file, counting what is read to tell the position of an iterator in the file
+    private static class Region extends InputStream {
+
+        private final RandomAccessFile file;
+        private final long end;
+        private long position;
+
+        Region(File file, long start, long end) throws IOException {
+            this.file = new RandomAccessFile(file, "r");
+            this.end = end;
+            this.position = start;
+            try {
+                this.file.seek(start);
+            } catch (IOException e) {
+                this.file.close();
+                throw e;
+            }
+        }
+
+        // the bytes buffered by the iterator are the last read
+        long position(JsonIterator iter) {
+            return position - (CodegenAccess.tail(iter) - CodegenAccess.head(iter));
+        }
+
+        // the bytes [from, to) of the file, reading goes on where it was
+        byte[] read(long from, long to) throws IOException {
+            byte[] bytes = new byte[(int) (to - from)];
+            file.seek(from);
+            file.readFully(bytes);
+            file.seek(position);
+            return bytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == end) {
+                return -1;
+            }
+            int b = file.read();
+            if (b != -1) {
+                position++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position == end) {
+                return -1;
+            }
+            int n = file.read(b, off, (int) Math.min(len, end - position));
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+
+    // one cursor for the whole iteration, the file is closed once the last element is read
+    private class ElementIterator implements Iterator<Any> {
+
+        private Cursor cursor;
+        private boolean moved;
+        private boolean hasNext;
+
+        @Override
+        public boolean hasNext() {
+            if (!moved) {
+                if (cursor == null) {
+                    cursor = new Cursor(0);
+                }
+                hasNext = cursor.next();
+                moved = true;
+                if (!hasNext) {
+                    cursor.close();
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public Any next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            moved = false;
+            return cursor.value();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class FieldIterator implements EntryIterator {
+
+        private Cursor cursor;
+        private boolean done;
+        private Any value;
+
+        @Override
+        public boolean next() {
+            if (done) {
+                return false;
+            }
+            if (cursor == null) {
+                cursor = new Cursor(0);
+            }
+            if (!cursor.next()) {
+                cursor.close();
+                done = true;
+                value = null;
+                return false;
+            }
+            value = cursor.value();
+            return true;
+        }
+
+        @Override
+        public String key() {
+            return cursor == null || done ? null : cursor.field;
+        }
+
+        @Override
+        public Any value() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.jsoniter.any;
+
+import java.io.File;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.HashSet;
+import java.util.Set;
+
+// the temporary file of a spilled Any, shared with the Any navigated from it. the file is deleted when closed,
+// or once none of them is reachable anymore: checked whenever another file is spilled, and when the vm exits
+final class SpilledFile {
+
+    private static final ReferenceQueue<SpilledFile> unreachable = new ReferenceQueue<SpilledFile>();
+    // the references must stay reachable themselves to be enqueued
+    private static final Set<Cleanup> live = new HashSet<Cleanup>();
+    private static boolean hookAdded;
+
+    final File file;
+    private final Cleanup cleanup;
+
+    SpilledFile(File file) {
+        this.file = file;
+        deleteUnreachable();
+        cleanup = new Cleanup(this);
+        synchronized (live) {
+            live.add(cleanup);
+            if (!hookAdded) {
+                Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        synchronized (live) {
+                            for (Cleanup cleanup : live) {
+                                cleanup.file.delete();
+                            }
+                            live.clear();
+                        }
+                    }
+                }));
+                hookAdded = true;
+            }
+        }
+    }
+
+    void delete() {
+        cleanup.delete();
+    }
+
+    private static void deleteUnreachable() {
+        for (Reference<? extends SpilledFile> ref = unreachable.poll(); ref != null; ref = unreachable.poll()) {
+            ((Cleanup) ref).delete();
+        }
+    }
+
+    private static class Cleanup extends PhantomReference<SpilledFile> {
+
+        private final File file;
+
+        Cleanup(SpilledFile spilledFile) {
+            super(spilledFile, unreachable);
+            this.file = spilledFile.file;
+        }
+
+        void delete() {
+            synchronized (live) {
+                live.remove(this);
+            }
+            file.delete();
+        }
+    }
+}
@@ -14,8 +14,8 @@ class StringLazyAny extends LazyAny {
     private final static String FALSE = "false";
     private String cache;
 
-    public StringLazyAny(byte[] data, int head, int tail) {
-        super(data, head, tail);
+    public StringLazyAny(byte[] data, int annotationHead, int head, int tail) {
+        super(data, annotationHead, head, tail);
     }
 
     @Override
@@ -11,6 +11,15 @@ class CodegenImplObject {
         ClassDescriptor desc = ClassDescriptor.getEncodingClassDescriptor(classInfo, false);
         List<EncodeTo> encodeTos = desc.encodeTos();
         ctx.append(String.format("public static void encode_(%s obj, com.jsoniter.output.JsonStream stream) throws java.io.IOException {", classInfo.clazz.getCanonicalName()));
+        if (desc.typeName != null) {
+            // constant bytes, merged into the write op opening the object
+            String annotation = "(" + JsonStream.serialize(desc.typeName) + ") ";
+            if (noIndention) {
+                ctx.buffer(annotation);
+            } else {
+                ctx.append(CodegenResult.bufferToWriteOp(annotation));
+            }
+        }
         if (hasFieldOutput(desc)) {
             int notFirst = 0;
             if (noIndention) {
@@ -109,7 +109,7 @@ class CodegenResult {
             StringBuilder escaped = new StringBuilder();
             for (int i = 0; i < buffered.length(); i++) {
                 char c = buffered.charAt(i);
-                if (c == '"') {
+                if (c == '"' || c == '\\') {
                     escaped.append('\\');
                 }
                 escaped.append(c);
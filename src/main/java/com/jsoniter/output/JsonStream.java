@@ -147,6 +147,15 @@ public class JsonStream extends OutputStream {
         }
     }
 
+    /**
+     * write a TYSON type annotation, the value should be written right after it
+     */
+    public final void writeTypeAnnotation(String typeName) throws IOException {
+        write((byte) '(');
+        StreamImplString.writeString(this, typeName);
+        write((byte) ')', (byte) ' ');
+    }
+
     public final void writeRaw(String val) throws IOException {
         writeRaw(val, val.length());
     }
@@ -67,6 +67,9 @@ class ReflectionObjectEncoder implements Encoder.ReflectionEncoder {
             stream.writeNull();
             return;
         }
+        if (desc.typeName != null) {
+            stream.writeTypeAnnotation(desc.typeName);
+        }
         stream.writeObjectStart();
         boolean notFirst = false;
         for (EncodeTo encodeTo : fields) {
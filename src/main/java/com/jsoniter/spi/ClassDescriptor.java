@@ -18,6 +18,7 @@ public class ClassDescriptor {
     public List<Method> keyValueTypeWrappers;
     public List<UnwrapperDescriptor> unwrappers;
     public boolean asExtraForUnknownProperties;
+    public String typeName;
     public Binding onMissingProperties;
     public Binding onExtraProperties;
 
@@ -98,6 +98,13 @@ public class Config extends EmptyExtension {
         return builder.encodingMode;
     }
 
+    /**
+     * @return TYSON type name to class, decoders of a class dispatch to the mapped subclasses by annotation
+     */
+    public Map<String, Class> typeNames() {
+        return Collections.unmodifiableMap(builder.typeNames);
+    }
+
     public static class Builder {
 
         private DecodingMode decodingMode;
@@ -105,6 +112,7 @@ public class Config extends EmptyExtension {
         private int indentionStep;
         private boolean escapeUnicode = true;
         private boolean omitDefaultValue = false;
+        private Map<String, Class> typeNames = new LinkedHashMap<String, Class>();
 
         public Builder() {
             String envMode = System.getenv("JSONITER_DECODING_MODE");
@@ -146,6 +154,15 @@ public class Config extends EmptyExtension {
             return this;
         }
 
+        /**
+         * a value annotated with the type name is decoded as the class,
+         * when it is read as a superclass of it
+         */
+        public Builder typeName(String typeName, Class clazz) {
+            typeNames.put(typeName, clazz);
+            return this;
+        }
+
         public Config build() {
             String configName = JsoniterSpi.assignConfigName(this);
             Config config = configs.get(configName);
@@ -180,6 +197,7 @@ public class Config extends EmptyExtension {
             if (escapeUnicode != builder.escapeUnicode) return false;
             if (decodingMode != builder.decodingMode) return false;
             if (omitDefaultValue != builder.omitDefaultValue) return false;
+            if (!typeNames.equals(builder.typeNames)) return false;
             return encodingMode == builder.encodingMode;
         }
 
@@ -190,6 +208,7 @@ public class Config extends EmptyExtension {
             result = 31 * result + indentionStep;
             result = 31 * result + (escapeUnicode ? 1 : 0);
             result = 31 * result + (omitDefaultValue ? 1 : 0);
+            result = 31 * result + typeNames.hashCode();
             return result;
         }
 
@@ -200,6 +219,7 @@ public class Config extends EmptyExtension {
             builder.indentionStep = indentionStep;
             builder.escapeUnicode = escapeUnicode;
             builder.omitDefaultValue = omitDefaultValue;
+            builder.typeNames = new LinkedHashMap<String, Class>(typeNames);
             return builder;
         }
 
@@ -211,6 +231,7 @@ public class Config extends EmptyExtension {
                     ", indentionStep=" + indentionStep +
                     ", escapeUnicode=" + escapeUnicode +
                     ", omitDefaultValue=" + omitDefaultValue +
+                    ", typeNames=" + typeNames +
                     '}';
         }
     }
@@ -241,6 +262,10 @@ public class Config extends EmptyExtension {
                 desc.fields.add(binding);
             }
         }
+        JsonTypeName jsonTypeName = (JsonTypeName) desc.clazz.getAnnotation(JsonTypeName.class);
+        if (jsonTypeName != null) {
+            desc.typeName = jsonTypeName.value();
+        }
         List<Method> allMethods = new ArrayList<Method>();
         Class current = desc.clazz;
         while (current != null) {
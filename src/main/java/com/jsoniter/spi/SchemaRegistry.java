@@ -0,0 +1,50 @@
+package com.jsoniter.spi;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Definitions of user-defined TYSON types, and the validators generated for them.
+ * The validator of a type calls the validators of the types it refers to directly,
+ * they are generated together and replaced together when any type is redefined.
+ */
+public class SchemaRegistry {
+
+    private static volatile Map<String, TypeDefinition> definitions = new HashMap<String, TypeDefinition>();
+    private static volatile Map<String, Validator> validators = new HashMap<String, Validator>();
+    private static volatile int version;
+
+    public synchronized static void define(TypeDefinition definition) {
+        HashMap<String, TypeDefinition> newDefinitions = new HashMap<String, TypeDefinition>(definitions);
+        newDefinitions.put(definition.name, definition);
+        definitions = newDefinitions;
+        // any validator may be linked to the one of the redefined type
+        validators = new HashMap<String, Validator>();
+        version++;
+    }
+
+    public static TypeDefinition getDefinition(String typeName) {
+        return definitions.get(typeName);
+    }
+
+    public static Validator getValidator(String typeName) {
+        return validators.get(typeName);
+    }
+
+    /**
+     * @return changed by every definition, to tell whether validators generated meanwhile are stale
+     */
+    public static int version() {
+        return version;
+    }
+
+    public synchronized static void addNewValidators(Map<String, Validator> generated, int generatedForVersion) {
+        if (version != generatedForVersion) {
+            // redefined while the validators were generated
+            return;
+        }
+        HashMap<String, Validator> newValidators = new HashMap<String, Validator>(validators);
+        newValidators.putAll(generated);
+        validators = newValidators;
+    }
+}
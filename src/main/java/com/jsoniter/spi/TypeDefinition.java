@@ -0,0 +1,133 @@
+package com.jsoniter.spi;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Schema of a user-defined TYSON type, registered with {@link SchemaRegistry}.
+ * An atomic type restricts a built-in type by facets, an object type lists its fields,
+ * an array type names the type of its members.
+ * Types are referenced by name, so definitions can be recursive and registered in any order.
+ */
+public class TypeDefinition {
+
+    public enum Kind {
+        ATOMIC, OBJECT, ARRAY
+    }
+
+    public static class FieldDefinition {
+        public final String name;
+        public final String typeName;
+        public final boolean required;
+
+        public FieldDefinition(String name, String typeName, boolean required) {
+            this.name = name;
+            this.typeName = typeName;
+            this.required = required;
+        }
+    }
+
+    public final String name;
+    public final Kind kind;
+    // atomic: the restricted built-in type, array: the member type
+    public final String baseTypeName;
+    // facets of string, integer, decimal and double
+    public Integer minLength;
+    public Integer maxLength;
+    public BigDecimal minInclusive;
+    public BigDecimal maxInclusive;
+    public List<String> enumeration;
+    // object
+    public final List<FieldDefinition> fields = new ArrayList<FieldDefinition>();
+    public boolean closed;
+
+    private TypeDefinition(String name, Kind kind, String baseTypeName) {
+        this.name = name;
+        this.kind = kind;
+        this.baseTypeName = baseTypeName;
+    }
+
+    public static TypeDefinition atomic(String name, String baseTypeName) {
+        return new TypeDefinition(name, Kind.ATOMIC, baseTypeName);
+    }
+
+    public static TypeDefinition object(String name) {
+        return new TypeDefinition(name, Kind.OBJECT, null);
+    }
+
+    public static TypeDefinition array(String name, String memberTypeName) {
+        return new TypeDefinition(name, Kind.ARRAY, memberTypeName);
+    }
+
+    /**
+     * @param minLength minimum length of a string, or minimum size of an array
+     */
+    public TypeDefinition minLength(int minLength) {
+        this.minLength = minLength;
+        return this;
+    }
+
+    /**
+     * @param maxLength maximum length of a string, or maximum size of an array
+     */
+    public TypeDefinition maxLength(int maxLength) {
+        this.maxLength = maxLength;
+        return this;
+    }
+
+    public TypeDefinition minInclusive(double minInclusive) {
+        return minInclusive(toBound(minInclusive));
+    }
+
+    /**
+     * @param minInclusive exact bound, compared without rounding to values of integer and decimal types
+     */
+    public TypeDefinition minInclusive(BigDecimal minInclusive) {
+        this.minInclusive = minInclusive;
+        return this;
+    }
+
+    public TypeDefinition maxInclusive(double maxInclusive) {
+        return maxInclusive(toBound(maxInclusive));
+    }
+
+    /**
+     * @param maxInclusive exact bound, compared without rounding to values of integer and decimal types
+     */
+    public TypeDefinition maxInclusive(BigDecimal maxInclusive) {
+        this.maxInclusive = maxInclusive;
+        return this;
+    }
+
+    private BigDecimal toBound(double bound) {
+        if (Double.isNaN(bound) || Double.isInfinite(bound)) {
+            throw new JsonException("bound of " + name + " must be finite, found " + bound);
+        }
+        // the shortest decimal of the double, 0.1 is 0.1 and not 0.1000000000000000055511151231257827
+        return new BigDecimal(Double.toString(bound));
+    }
+
+    public TypeDefinition enumeration(String... values) {
+        this.enumeration = Arrays.asList(values);
+        return this;
+    }
+
+    public TypeDefinition field(String name, String typeName) {
+        return field(name, typeName, false);
+    }
+
+    public TypeDefinition field(String name, String typeName, boolean required) {
+        fields.add(new FieldDefinition(name, typeName, required));
+        return this;
+    }
+
+    /**
+     * reject fields that are not defined, by default they are read without validation
+     */
+    public TypeDefinition closed() {
+        this.closed = true;
+        return this;
+    }
+}
@@ -0,0 +1,20 @@
+package com.jsoniter.spi;
+
+import com.jsoniter.JsonIterator;
+
+import java.io.IOException;
+
+/**
+ * Generated for a user-defined type of {@link SchemaRegistry}, checks a value of the type while reading it.
+ * Decoding keeps the value, objects and arrays as Map and List.
+ */
+public interface Validator extends Decoder {
+
+    /**
+     * @param iter the iterator positioned in front of the value, or of its annotation
+     * @param keep false to only check the value, no Map and List are built and null is returned
+     * @return the value if kept
+     * @throws IOException when reading from iterator triggered error
+     */
+    Object validate(JsonIterator iter, boolean keep) throws IOException;
+}
@@ -0,0 +1,83 @@
+package com.jsoniter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+// word at a time version of IterImplScan, loaded from META-INF/versions/17 of the multi-release jar.
+// 8 bytes are loaded as one long and compared with SWAR, the tail shorter than a word is scanned byte by byte.
+final class IterImplScan {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOWS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long QUOTES = '"' * ONES;
+    private static final long BACKSLASHES = '\\' * ONES;
+
+    private IterImplScan() {
+    }
+
+    static int findQuote(byte[] buf, int from, int to) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long mask = matches((long) LONGS.get(buf, i), QUOTES);
+            if (mask != 0) {
+                return i + (Long.numberOfTrailingZeros(mask) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (buf[i] == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int findQuoteOrBackslash(byte[] buf, int from, int to) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long word = (long) LONGS.get(buf, i);
+            long mask = matches(word, QUOTES) | matches(word, BACKSLASHES);
+            if (mask != 0) {
+                return i + (Long.numberOfTrailingZeros(mask) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            byte c = buf[i];
+            if (c == '"' || c == '\\') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int findStructural(byte[] buf, int from, int to, byte open, byte close) {
+        long opens = (open & 0xFFL) * ONES;
+        long closes = (close & 0xFFL) * ONES;
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long word = (long) LONGS.get(buf, i);
+            long mask = matches(word, QUOTES) | matches(word, opens) | matches(word, closes);
+            if (mask != 0) {
+                return i + (Long.numberOfTrailingZeros(mask) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            byte c = buf[i];
+            if (c == '"' || c == open || c == close) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static long loadLong(byte[] buf, int i) {
+        return (long) LONGS.get(buf, i);
+    }
+
+    // high bit set in exactly the bytes of word equal to the byte repeated in pattern
+    private static long matches(long word, long pattern) {
+        long x = word ^ pattern;
+        return ~(((x & LOWS) + LOWS) | x | LOWS);
+    }
+}
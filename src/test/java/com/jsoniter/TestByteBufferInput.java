@@ -0,0 +1,52 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.JsonException;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class TestByteBufferInput extends TestCase {
+
+    private static ByteBuffer direct(String str) {
+        byte[] bytes = str.getBytes();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 4);
+        buffer.put("xx".getBytes()).put(bytes).put("yy".getBytes());
+        buffer.position(2);
+        buffer.limit(2 + bytes.length);
+        return buffer;
+    }
+
+    public void test_heap_buffer_in_place() throws IOException {
+        byte[] bytes = "[[1, 2], (\"point\") {\"x\": 3}]".getBytes();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, 6).slice();
+        JsonIterator iter = JsonIterator.parse(buffer);
+        assertSame(bytes, iter.buf);
+        assertEquals(1, iter.head);
+        assertEquals(7, iter.tail);
+        Any any = iter.readAny();
+        assertEquals(2, any.toInt(1));
+        assertEquals(0, buffer.position());
+    }
+
+    public void test_direct_buffer() {
+        ByteBuffer buffer = direct("(\"point\") {\"x\": 3, \"y\": \"a\"}");
+        try {
+            JsonIterator.parse(buffer);
+            fail();
+        } catch (JsonException e) {
+        }
+        assertEquals(2, buffer.position());
+    }
+
+    public void test_read_only_buffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("  12345678901  ".getBytes()).asReadOnlyBuffer();
+        assertFalse(buffer.hasArray());
+        try {
+            JsonIterator.parse(buffer);
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+}
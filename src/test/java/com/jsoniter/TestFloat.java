@@ -6,6 +6,7 @@ import org.junit.experimental.categories.Category;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.Random;
 
 public class TestFloat extends TestCase {
 
@@ -55,11 +56,37 @@ public class TestFloat extends TestCase {
         assertEquals(Double.valueOf("8.37377E9"), v, 1000d);
     }
 
+    public void test_correctly_rounded() throws IOException {
+        String[] inputs = {"0.1", "0.3", "2.2250738585072011e-308", "2.2250738585072012e-308", "4.9e-324",
+                "2.4703282292062328e-324", "1.7976931348623157e308", "1.7976931348623159e308", "9007199254740993",
+                "1e23", "7.2057594037927933e16", "3.141592653589793", "123456789012345678901234567890",
+                "0.000000000000000000000000000001", "1e-400", "0e999", "-0.0"};
+        for (String input : inputs) {
+            assertEquals(input, Double.parseDouble(input), parseDouble(input + ","));
+        }
+        assertEquals(Float.parseFloat("1.00000017881393432617187499"), parseFloat("1.00000017881393432617187499,"));
+    }
+
+    public void test_random_doubles() throws IOException {
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            double expected = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(expected) || Double.isInfinite(expected)) {
+                continue;
+            }
+            String input = Double.toString(expected);
+            assertEquals(input, expected, parseDouble(input + ","));
+            input = (random.nextLong() >>> random.nextInt(64)) + "e" + (random.nextInt(600) - 300);
+            assertEquals(input, Double.parseDouble(input), parseDouble(input + ","));
+        }
+    }
+
     @Category(StreamingCategory.class)
     public void test_streaming() throws IOException {
         isStreaming = true;
         test_positive_negative();
         test_decimal_places();
+        test_correctly_rounded();
     }
 
     private float parseFloat(String input) throws IOException {
@@ -88,6 +115,8 @@ public class TestFloat extends TestCase {
         assertEquals(1.1, number);
         number = JsonIterator.deserialize("1.0", Object.class);
         assertEquals(1.0, number);
+        number = JsonIterator.deserialize("1e400", Object.class);
+        assertEquals(Double.POSITIVE_INFINITY, number);
     }
 
     public void testInfinity() {
@@ -18,6 +18,7 @@ public class TestInteger extends TestCase {
     }
 
     private boolean isStreaming;
+    private int streamingBufSize = 2;
 
     public void test_char() throws IOException {
         Character c = JsonIterator.deserialize("50", Character.class);
@@ -118,6 +119,63 @@ public class TestInteger extends TestCase {
         test_large_number();
     }
 
+    @Category(StreamingCategory.class)
+    public void test_streaming_many_digits() throws IOException {
+        isStreaming = true;
+        test_many_digits();
+        // big enough to convert 8 digits at once
+        streamingBufSize = 64;
+        test_many_digits();
+        test_large_number();
+    }
+
+    public void test_many_digits() throws IOException {
+        String digits = "1234567890123456789";
+        for (int len = 1; len <= digits.length(); len++) {
+            String number = digits.substring(0, len);
+            assertEquals(Long.parseLong(number), parseLong(number));
+            assertEquals(Long.parseLong("-" + number), parseLong("-" + number));
+            JsonIterator iter = parse("[" + number + ",-" + number + "1]");
+            assertTrue(iter.readArray());
+            assertEquals(Long.parseLong(number), iter.readLong());
+            assertTrue(iter.readArray());
+            if (len < 19) {
+                assertEquals(Long.parseLong("-" + number + "1"), iter.readLong());
+            } else {
+                try {
+                    iter.readLong();
+                    fail();
+                } catch (JsonException e) {
+                }
+            }
+            if (len <= 10) {
+                long expected = Long.parseLong(number);
+                if (expected <= Integer.MAX_VALUE) {
+                    assertEquals((int) expected, parseInt(number));
+                } else {
+                    try {
+                        parseInt(number);
+                        fail();
+                    } catch (JsonException e) {
+                    }
+                }
+            }
+            iter = parse(number + " ");
+            assertEquals(TysonType.INTEGER, iter.numberType());
+            assertEquals(Long.parseLong(number), iter.readLong());
+        }
+        try {
+            parseLong("-9223372036854775809");
+            fail();
+        } catch (JsonException e) {
+        }
+        try {
+            parseLong("12345678901234567890123");
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
     public void test_leading_zero() throws IOException {
         assertEquals(Integer.valueOf(0), JsonIterator.deserialize("0", int.class));
         assertEquals(Long.valueOf(0), JsonIterator.deserialize("0", long.class));
@@ -171,9 +229,16 @@ public class TestInteger extends TestCase {
         assertEquals(Integer.MIN_VALUE, ints[1]);
     }
 
+    private JsonIterator parse(String input) {
+        if (isStreaming) {
+            return JsonIterator.parse(new ByteArrayInputStream(input.getBytes()), streamingBufSize);
+        }
+        return JsonIterator.parse(input);
+    }
+
     private int parseInt(String input) throws IOException {
         if (isStreaming) {
-            JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream(input.getBytes()), 2);
+            JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream(input.getBytes()), streamingBufSize);
             return iter.readInt();
         } else {
             JsonIterator iter = JsonIterator.parse(input);
@@ -185,7 +250,7 @@ public class TestInteger extends TestCase {
 
     private long parseLong(String input) throws IOException {
         if (isStreaming) {
-            JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream(input.getBytes()), 2);
+            JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream(input.getBytes()), streamingBufSize);
             return iter.readLong();
         } else {
             JsonIterator iter = JsonIterator.parse(input);
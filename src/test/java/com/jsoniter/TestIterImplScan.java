@@ -0,0 +1,144 @@
+package com.jsoniter;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.Random;
+
+// the word at a time scanner of META-INF/versions/17 is only used from the multi-release jar,
+// the tests run against the classes directory. it is loaded explicitly here and compared with the baseline
+public class TestIterImplScan extends TestCase {
+
+    private static final String VERSIONED = "META-INF/versions/17/com/jsoniter/IterImplScan.class";
+    private static final byte[] TARGETS = {'"', '\\', '[', ']', '{', '}'};
+    // bytes one bit or the high bit away from the targets, which a wrong mask would match
+    private static final byte[] NOISE = {'a', '!', '#', 'Z', '^', 'z', '|', (byte) 0xA2, (byte) 0xDC, (byte) 0xDB,
+            (byte) 0xDD, (byte) 0xFB, (byte) 0xFD, 0, (byte) 0xFF};
+
+    private Method findQuote;
+    private Method findQuoteOrBackslash;
+    private Method findStructural;
+    private Method loadLong;
+
+    @Override
+    protected void setUp() throws Exception {
+        if (javaVersion() < 17) {
+            // the versioned class is neither compiled nor loadable, the tests are skipped
+            return;
+        }
+        Class<?> versioned = loadVersioned();
+        findQuote = versioned.getDeclaredMethod("findQuote", byte[].class, int.class, int.class);
+        findQuoteOrBackslash = versioned.getDeclaredMethod("findQuoteOrBackslash", byte[].class, int.class, int.class);
+        findStructural = versioned.getDeclaredMethod("findStructural", byte[].class, int.class, int.class, byte.class, byte.class);
+        loadLong = versioned.getDeclaredMethod("loadLong", byte[].class, int.class);
+        findQuote.setAccessible(true);
+        findQuoteOrBackslash.setAccessible(true);
+        findStructural.setAccessible(true);
+        loadLong.setAccessible(true);
+    }
+
+    // on java 17 and later the build compiles src/main/java17, its class must be there
+    private static Class<?> loadVersioned() throws IOException {
+        InputStream in = TestIterImplScan.class.getClassLoader().getResourceAsStream(VERSIONED);
+        if (in == null) {
+            fail(VERSIONED + " not found, the java17 sources were not compiled");
+        }
+        final byte[] bytes;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            for (int n = in.read(buf); n != -1; n = in.read(buf)) {
+                out.write(buf, 0, n);
+            }
+            bytes = out.toByteArray();
+        } finally {
+            in.close();
+        }
+        return new ClassLoader(TestIterImplScan.class.getClassLoader()) {
+            Class<?> define() {
+                return defineClass("com.jsoniter.IterImplScan", bytes, 0, bytes.length);
+            }
+        }.define();
+    }
+
+    private static int javaVersion() {
+        String version = System.getProperty("java.specification.version");
+        if (version.startsWith("1.")) {
+            return Integer.parseInt(version.substring(2));
+        }
+        return Integer.parseInt(version);
+    }
+
+    public void test_target_at_every_offset() throws Exception {
+        if (findQuote == null) {
+            return;
+        }
+        Random random = new Random(42);
+        for (int length = 0; length <= 26; length++) {
+            byte[] buf = new byte[length];
+            for (byte target : TARGETS) {
+                for (int at = -1; at < length; at++) {
+                    fill(buf, random);
+                    if (at >= 0) {
+                        buf[at] = target;
+                    }
+                    if (at + 3 < length) {
+                        // a second target, the first one must win
+                        buf[at + 3] = TARGETS[random.nextInt(TARGETS.length)];
+                    }
+                    for (int from = 0; from <= Math.min(length, 9); from++) {
+                        for (int to = from; to <= length; to++) {
+                            assertSame(buf, from, to);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public void test_noise_only() throws Exception {
+        if (findQuote == null) {
+            return;
+        }
+        Random random = new Random(7);
+        byte[] buf = new byte[64];
+        for (int round = 0; round < 200; round++) {
+            fill(buf, random);
+            for (int from = 0; from < 9; from++) {
+                assertSame(buf, from, buf.length);
+                assertEquals(-1, findQuote.invoke(null, buf, from, buf.length));
+            }
+        }
+    }
+
+    public void test_load_long() throws Exception {
+        if (loadLong == null) {
+            return;
+        }
+        Random random = new Random(3);
+        byte[] buf = new byte[24];
+        random.nextBytes(buf);
+        for (int i = 0; i + 8 <= buf.length; i++) {
+            assertEquals(IterImplScan.loadLong(buf, i), loadLong.invoke(null, buf, i));
+        }
+    }
+
+    private void assertSame(byte[] buf, int from, int to) throws Exception {
+        String where = "from " + from + " to " + to + " in " + new String(buf, "ISO-8859-1");
+        assertEquals(where, IterImplScan.findQuote(buf, from, to), findQuote.invoke(null, buf, from, to));
+        assertEquals(where, IterImplScan.findQuoteOrBackslash(buf, from, to), findQuoteOrBackslash.invoke(null, buf, from, to));
+        assertEquals(where, IterImplScan.findStructural(buf, from, to, (byte) '[', (byte) ']'),
+                findStructural.invoke(null, buf, from, to, (byte) '[', (byte) ']'));
+        assertEquals(where, IterImplScan.findStructural(buf, from, to, (byte) '{', (byte) '}'),
+                findStructural.invoke(null, buf, from, to, (byte) '{', (byte) '}'));
+    }
+
+    private static void fill(byte[] buf, Random random) {
+        for (int i = 0; i < buf.length; i++) {
+            buf[i] = NOISE[random.nextInt(NOISE.length)];
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.JsonException;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TestJsonFeeder extends TestCase {
+
+    public static class Order {
+        public int id;
+        public String[] items;
+    }
+
+    private static final String INPUT = "{\"id\": 1, \"items\": [\"a]\", \"b\\\"}\"]}\n"
+            + "(\"point\") {\"x\": [1, {\"y\": \"\\\\\"}]}  \"text \\\\\\\" (\"\n"
+            + "(\"integer\") 123 -4.5e3[true,null] false(\"t\")\"x\" null";
+
+    private static final String[] VALUES = {"{\"id\": 1, \"items\": [\"a]\", \"b\\\"}\"]}",
+            "(\"point\") {\"x\": [1, {\"y\": \"\\\\\"}]}", "\"text \\\\\\\" (\"", "(\"integer\") 123", "-4.5e3",
+            "[true,null]", "false", "(\"t\")\"x\"", "null"};
+
+    private static List<String> feedInChunks(byte[] input, Random random) {
+        JsonFeeder feeder = new JsonFeeder(8);
+        List<String> values = new ArrayList<String>();
+        int i = 0;
+        while (i < input.length) {
+            int n = Math.min(input.length - i, random == null ? 1 : random.nextInt(20));
+            feeder.feed(input, i, n);
+            i += n;
+            while (feeder.hasNext()) {
+                JsonIterator iter = feeder.next();
+                values.add(new String(iter.buf, iter.head, iter.tail - iter.head));
+            }
+        }
+        feeder.endOfInput();
+        while (feeder.hasNext()) {
+            JsonIterator iter = feeder.next();
+            values.add(new String(iter.buf, iter.head, iter.tail - iter.head));
+        }
+        return values;
+    }
+
+    public void test_values() {
+        byte[] input = INPUT.getBytes();
+        List<String> expected = new ArrayList<String>();
+        for (String value : VALUES) {
+            expected.add(value);
+        }
+        assertEquals(expected, feedInChunks(input, null));
+        Random random = new Random(7);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected, feedInChunks(input, random));
+        }
+    }
+
+    public void test_bind() {
+        JsonFeeder feeder = new JsonFeeder();
+        feeder.feed("{\"id\": 1, \"items\": [\"a\"]} {\"id\": 2, ".getBytes());
+        assertTrue(feeder.hasNext());
+        assertEquals(1, feeder.next(Order.class).id);
+        assertFalse(feeder.hasNext());
+        feeder.feed("\"items\": []}".getBytes());
+        assertEquals(0, feeder.next(Order.class).items.length);
+        assertFalse(feeder.hasNext());
+    }
+
+    public void test_lazy_any_stays_valid() {
+        JsonFeeder feeder = new JsonFeeder(16);
+        feeder.feed("[1, [2, 3], \"four\"] ".getBytes());
+        Any first = feeder.nextAny();
+        for (int i = 0; i < 1000; i++) {
+            feeder.feed(("{\"i\": " + i + "}\n").getBytes());
+            assertEquals(i, feeder.nextAny().toInt("i"));
+        }
+        assertEquals(3, first.toInt(1, 1));
+        assertEquals("four", first.toString(2));
+    }
+
+    public void test_literal_needs_a_separator() throws IOException {
+        JsonFeeder feeder = new JsonFeeder();
+        feeder.feed("12".getBytes());
+        assertFalse(feeder.hasNext());
+        feeder.feed("34".getBytes());
+        assertFalse(feeder.hasNext());
+        feeder.endOfInput();
+        assertEquals(1234, feeder.next().readInt());
+        assertFalse(feeder.hasNext());
+    }
+
+    public void test_errors() {
+        JsonFeeder feeder = new JsonFeeder();
+        feeder.feed("[1, 2] (\"a\") {\"b\": ".getBytes());
+        assertEquals(2, feeder.nextAny().size());
+        feeder.endOfInput();
+        try {
+            feeder.hasNext();
+            fail();
+        } catch (JsonException e) {
+        }
+        try {
+            feeder.feed("}".getBytes());
+            fail();
+        } catch (JsonException e) {
+        }
+        feeder = new JsonFeeder();
+        feeder.feed("truex ".getBytes());
+        try {
+            feeder.nextAny();
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
+    public void test_array_elements() {
+        String input = "(\"orders\") [ {\"id\": 1, \"items\": [\"a]\"]} ,(\"order\"){\"id\": 2}, 3,\"x\",null ]\n";
+        String[] expected = {"{\"id\": 1, \"items\": [\"a]\"]}", "(\"order\"){\"id\": 2}", "3", "\"x\"", "null"};
+        Random random = new Random(5);
+        for (int round = 0; round < 100; round++) {
+            JsonFeeder feeder = new JsonFeeder(8);
+            feeder.readArrayElements();
+            List<String> values = new ArrayList<String>();
+            byte[] bytes = input.getBytes();
+            int i = 0;
+            while (i < bytes.length) {
+                int n = Math.min(bytes.length - i, round == 0 ? 1 : random.nextInt(10));
+                feeder.feed(bytes, i, n);
+                i += n;
+                while (feeder.hasNext()) {
+                    JsonIterator iter = feeder.next();
+                    values.add(new String(iter.buf, iter.head, iter.tail - iter.head));
+                }
+                // every element is returned as soon as it is complete, before the array is
+                assertEquals(completed(i), values.size());
+            }
+            feeder.endOfInput();
+            assertFalse(feeder.hasNext());
+            assertEquals(Arrays.asList(expected), values);
+            assertEquals("orders", feeder.arrayType().name());
+        }
+    }
+
+    // elements of the array in test_array_elements complete with their last byte, or the separator after a literal
+    private static int completed(int fed) {
+        int completed = 0;
+        for (int end : new int[]{38, 58, 62, 65, 71}) {
+            if (fed > end) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    public void test_array_elements_errors() {
+        String[] invalid = {"{}", "[1,]", "[,1]", "[1 2]", "[1] 2", "[1, 2", "[(\"t\") ]"};
+        for (String input : invalid) {
+            JsonFeeder feeder = new JsonFeeder();
+            feeder.readArrayElements();
+            try {
+                feeder.feed(input.getBytes());
+                while (feeder.hasNext()) {
+                    feeder.nextAny();
+                }
+                feeder.endOfInput();
+                feeder.hasNext();
+                fail(input);
+            } catch (JsonException e) {
+            }
+        }
+        JsonFeeder feeder = new JsonFeeder();
+        feeder.readArrayElements();
+        feeder.feed(" [ ] ".getBytes());
+        feeder.endOfInput();
+        assertFalse(feeder.hasNext());
+    }
+}
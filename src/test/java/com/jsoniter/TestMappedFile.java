@@ -0,0 +1,155 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.JsonException;
+import junit.framework.TestCase;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+
+public class TestMappedFile extends TestCase {
+
+    private static final String INPUT = "(\"points\") [{\"x\": 1, \"y\": (\"decimal\") 2.5}, {\"x\": 3, \"label\": \"\\u00e9\"}, [true, null]]";
+
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception {
+        file = File.createTempFile("jsoniter", ".tyson");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write("    ".getBytes());
+            out.write(INPUT.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.delete();
+    }
+
+    public void test_file() throws IOException {
+        JsonIterator iter = JsonIterator.parse(file);
+        Any any = iter.readAny();
+        assertEquals(JsonIterator.deserialize(INPUT).toString(), any.toString());
+        assertEquals(2.5, any.toDouble(0, "y"));
+        assertEquals("\u00e9", any.toString(1, "label"));
+        iter.close();
+    }
+
+    public void test_channel_from_position() throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            channel.position(4);
+            JsonIterator iter = JsonIterator.parse(channel);
+            assertEquals(0, iter.head);
+            assertEquals(INPUT.getBytes("UTF-8").length, iter.tail);
+            assertEquals(3, iter.readAny().toInt(1, "x"));
+            assertTrue(channel.isOpen());
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_large_file_is_not_copied_at_once() throws IOException {
+        File large = File.createTempFile("jsoniter", ".tyson");
+        try {
+            FileOutputStream out = new FileOutputStream(large);
+            int count = MappedFileInputStream.BUFFER_SIZE / INPUT.length() + 1;
+            try {
+                out.write('[');
+                for (int i = 0; i < count; i++) {
+                    out.write(((i == 0 ? "" : ",") + INPUT).getBytes("UTF-8"));
+                }
+                out.write(']');
+            } finally {
+                out.close();
+            }
+            JsonIterator iter = JsonIterator.parse(large);
+            assertEquals(MappedFileInputStream.BUFFER_SIZE, iter.buf.length);
+            int elements = 0;
+            while (iter.readArray()) {
+                assertEquals(3, iter.readAny().toInt(1, "x"));
+                elements++;
+            }
+            assertEquals(count, elements);
+            iter.close();
+        } finally {
+            large.delete();
+        }
+    }
+
+    public void test_missing_file() {
+        try {
+            JsonIterator.parse(new File(file.getPath() + ".missing"));
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
+    public void test_windows() throws IOException {
+        for (int windowSize = 1; windowSize < 12; windowSize++) {
+            MappedFileInputStream in = new MappedFileInputStream(new RandomAccessFile(file, "r").getChannel(), true, windowSize);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(' ', in.read());
+            assertEquals(2, in.skip(2));
+            byte[] bytes = new byte[5];
+            int n;
+            while ((n = in.read(bytes, 0, bytes.length)) != -1) {
+                assertTrue(n > 0);
+                out.write(bytes, 0, n);
+            }
+            assertEquals(-1, in.read());
+            assertEquals(0, in.available());
+            in.close();
+            assertEquals(" " + INPUT, new String(out.toByteArray(), "UTF-8"));
+        }
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_streaming() throws IOException {
+        JsonIterator iter = JsonIterator.parse(file, 8);
+        assertEquals(8, iter.buf.length);
+        assertEquals(JsonIterator.deserialize(INPUT).toString(), iter.readAny().toString());
+        iter.close();
+        iter = JsonIterator.parse(new MappedFileInputStream(new RandomAccessFile(file, "r").getChannel(), true, 3), 4);
+        assertEquals(2.5, iter.readAny().toDouble(0, "y"));
+        iter.close();
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_every_window_size() throws IOException {
+        String expected = JsonIterator.deserialize(INPUT).toString();
+        for (int bufSize = 1; bufSize < INPUT.length() + 4; bufSize++) {
+            JsonIterator iter = JsonIterator.parse(file, bufSize);
+            Any any = iter.readAny();
+            assertEquals(expected, any.toString());
+            assertEquals(3, any.toInt(1, "x"));
+            iter.close();
+            iter = JsonIterator.parse(file, bufSize);
+            assertEquals("points", iter.readTypeDeclaration());
+            assertTrue(iter.readArray());
+            assertEquals(1, iter.readAny().toInt("x"));
+            assertTrue(iter.readArray());
+            assertEquals("\u00e9", iter.readAny().toString("label"));
+            assertTrue(iter.readArray());
+            assertTrue(iter.readArray());
+            assertTrue(iter.readBoolean());
+            assertTrue(iter.readArray());
+            assertTrue(iter.readNull());
+            assertFalse(iter.readArray());
+            assertFalse(iter.readArray());
+            iter.close();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.jsoniter;
+
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.TypeLiteral;
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public class TestParallelReadArray extends TestCase {
+
+    public static class Reading {
+        public int id;
+        public String name;
+        public double[] values;
+    }
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    public void test_many_chunks() {
+        StringBuilder input = new StringBuilder("(\"readings\") [");
+        for (int i = 0; i < 20000; i++) {
+            if (i > 0) {
+                input.append(",\n ");
+            }
+            input.append("{\"id\": ").append(i).append(", \"name\": \"r,]\\\"").append(i)
+                    .append("\", \"values\": [").append(i).append(".5, {\"skipped\": \"]\"}], \"extra\": [[], {}]}");
+        }
+        input.append(" ]");
+        byte[] bytes = input.toString().getBytes();
+        assertTrue(bytes.length > 1 << 20);
+        List<Map<String, Object>> maps = JsonIterator.parallelReadArray(bytes, new TypeLiteral<Map<String, Object>>() {
+        }, executor);
+        assertEquals(20000, maps.size());
+        for (int i = 0; i < maps.size(); i++) {
+            assertEquals(i, ((Number) maps.get(i).get("id")).intValue());
+            assertEquals("r,]\"" + i, maps.get(i).get("name"));
+        }
+    }
+
+    public void test_bind_class() {
+        StringBuilder input = new StringBuilder("[");
+        for (int i = 0; i < 30000; i++) {
+            input.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"n\",\"values\":[1.5,2]}");
+        }
+        input.append("]");
+        List<Reading> readings = JsonIterator.parallelReadArray(input.toString().getBytes(), Reading.class, executor);
+        assertEquals(30000, readings.size());
+        assertEquals(29999, readings.get(29999).id);
+        assertEquals(2.0, readings.get(123).values[1]);
+    }
+
+    public void test_small() {
+        assertEquals(0, JsonIterator.parallelReadArray(" [ ] ".getBytes(), Integer.class, executor).size());
+        List<Integer> list = JsonIterator.parallelReadArray("[1, 2 ,3]".getBytes(), Integer.class, executor);
+        assertEquals(3, list.size());
+        assertEquals(3, list.get(2).intValue());
+    }
+
+    public void test_annotated_elements() {
+        StringBuilder input = new StringBuilder("[");
+        for (int i = 0; i < 30000; i++) {
+            input.append(i == 0 ? "" : ",").append("(\"p,](\") {\"id\":").append(i).append("}");
+        }
+        input.append("]\n");
+        List<Object> elements = JsonIterator.parallelReadArray(input.toString().getBytes(), Object.class, executor);
+        assertEquals(30000, elements.size());
+        assertEquals(29999, ((Number) ((Map) elements.get(29999)).get("id")).intValue());
+    }
+
+    public void test_malformed() {
+        String[] inputs = {"{}", "[1, 2", "[1, 2}", "[1,]", "[\"a]", "[1 2]", "[1] 2", "[{\"id\":1}] x", "[(\"t\" 1]"};
+        for (String input : inputs) {
+            try {
+                JsonIterator.parallelReadArray(input.getBytes(), Integer.class, executor);
+                fail(input);
+            } catch (JsonException e) {
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.TypeLiteral;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public class TestParallelReadLines extends TestCase {
+
+    public static class Record {
+        public int id;
+        public String text;
+    }
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private static byte[] lines(int count) {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            input.append("{\"id\": ").append(i).append(", \"text\": \"a\\nb,}").append(i).append("\"}");
+            input.append(i % 7 == 0 ? "\r\n" : "\n");
+            if (i % 100 == 0) {
+                input.append("  \n");
+            }
+        }
+        return input.toString().getBytes();
+    }
+
+    public void test_same_as_sequential() {
+        byte[] input = lines(50000);
+        assertTrue(input.length > 1 << 20);
+        List<Record> expected = new ArrayList<Record>();
+        for (String line : new String(input).split("\n")) {
+            if (line.trim().length() > 0) {
+                expected.add(JsonIterator.deserialize(line, Record.class));
+            }
+        }
+        Iterator<Record> records = JsonIterator.parallelReadLines(input, Record.class, executor, true);
+        for (Record record : expected) {
+            Record actual = records.next();
+            assertEquals(record.id, actual.id);
+            assertEquals(record.text, actual.text);
+        }
+        assertFalse(records.hasNext());
+    }
+
+    public void test_unordered() {
+        Iterator<Map<String, Object>> records = JsonIterator.parallelReadLines(lines(50000), new TypeLiteral<Map<String, Object>>() {
+        }, executor, false);
+        List<Integer> ids = new ArrayList<Integer>();
+        while (records.hasNext()) {
+            ids.add(((Number) records.next().get("id")).intValue());
+        }
+        Collections.sort(ids);
+        assertEquals(50000, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i, ids.get(i).intValue());
+        }
+    }
+
+    public void test_annotated_lines() {
+        Iterator<Any> records = JsonIterator.parallelReadLines("(\"point\") {\"x\": 1}\n\n[1, 2]\n(\"integer\") 3".getBytes(), Any.class, executor, true);
+        assertEquals(1, records.next().toInt("x"));
+        assertEquals(2, records.next().size());
+        assertEquals(3, records.next().toInt());
+        assertFalse(records.hasNext());
+    }
+
+    public void test_value_per_line() {
+        String[] inputs = {"1 2\n", "{\"a\":\n1}", "[1,\n2]\n"};
+        for (String input : inputs) {
+            try {
+                Iterator<Any> records = JsonIterator.parallelReadLines(input.getBytes(), Any.class, executor, true);
+                while (records.hasNext()) {
+                    records.next();
+                }
+                fail(input);
+            } catch (JsonException e) {
+            }
+        }
+    }
+
+    public void test_error_in_a_chunk() {
+        byte[] input = lines(50000);
+        int corrupted = input.length / 2;
+        while (input[corrupted] != '{') {
+            corrupted++;
+        }
+        input[corrupted] = '}';
+        Iterator<Record> records = JsonIterator.parallelReadLines(input, Record.class, executor, true);
+        try {
+            while (records.hasNext()) {
+                records.next();
+            }
+            fail();
+        } catch (JsonException e) {
+        }
+        assertFalse(records.hasNext());
+    }
+}
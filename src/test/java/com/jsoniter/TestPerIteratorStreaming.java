@@ -0,0 +1,55 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.Slice;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+
+public class TestPerIteratorStreaming extends TestCase {
+
+    private static final String INPUT = "[{\"a\": \"hello\", \"b\": [1, 2.5, -3]}, (\"integer\") 12345678901, true, null]";
+
+    private static boolean isStreamingEnabledGlobally() {
+        return IterImplForStreaming.class.isAssignableFrom(IterImpl.class);
+    }
+
+    public void test_stream_does_not_enable_streaming_globally() throws IOException {
+        boolean enabled = isStreamingEnabledGlobally();
+        JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream(INPUT.getBytes()), 3);
+        assertTrue(iter.streaming);
+        assertEquals(JsonIterator.deserialize(INPUT).toString(), iter.readAny().toString());
+        assertEquals(enabled, isStreamingEnabledGlobally());
+        iter.reset(INPUT.getBytes());
+        assertFalse(iter.streaming);
+        assertEquals(4, iter.readAny().size());
+    }
+
+    public void test_interleaved() throws IOException {
+        JsonIterator stream = JsonIterator.parse(new ByteArrayInputStream(INPUT.getBytes()), 2);
+        JsonIterator memory = JsonIterator.parse(INPUT);
+        Slice[] segments = {new Slice(INPUT.getBytes(), 0, 10), new Slice(INPUT.getBytes(), 10, INPUT.length())};
+        JsonIterator segmented = JsonIterator.parse(segments);
+        for (JsonIterator iter : new JsonIterator[]{stream, memory, segmented}) {
+            assertTrue(iter.readArray());
+        }
+        for (JsonIterator iter : new JsonIterator[]{stream, memory, segmented}) {
+            Map<String, Object> map = iter.read(Map.class);
+            assertEquals("hello", map.get("a"));
+            assertTrue(iter.readArray());
+        }
+        for (JsonIterator iter : new JsonIterator[]{stream, memory, segmented}) {
+            assertEquals(ValueType.NUMBER, iter.whatIsNext());
+            assertEquals("integer", iter.lastTypeAnnotation().toString());
+            assertEquals(12345678901L, iter.readLong());
+            assertTrue(iter.readArray());
+            Any any = iter.readAny();
+            assertTrue(any.toBoolean());
+            assertTrue(iter.readArray());
+            assertTrue(iter.readNull());
+            assertFalse(iter.readArray());
+        }
+    }
+}
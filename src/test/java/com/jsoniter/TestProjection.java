@@ -0,0 +1,140 @@
+package com.jsoniter;
+
+import com.jsoniter.spi.JsonException;
+import junit.framework.TestCase;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+public class TestProjection extends TestCase {
+
+    private static final String INPUT = ("{'id': 7, 'user': {'name': 'Ann', 'id': 12345678901, 'tags': ['a', 'b'], 'active': true}," +
+            " 'geo': {'lat': 47.37, 'lon': 8.54, 'extra': {'deep': [1, {'x': '}'}]}}, 'note': null," +
+            " 'readings': [1.5, [2], {'v': 3}], 'unused': {'a': [1, 2, 3]}}").replace('\'', '"');
+
+    public void test_paths() throws IOException {
+        Projection projection = JsonIterator.compileProjection("$.user.id", "$.geo.lat", "$.user.name",
+                "$.user.active", "$.note", "$.readings[2].v", "$.user.tags", "$['geo'].lon", "$.missing.x");
+        ProjectionRow row = projection.read(JsonIterator.parse(INPUT));
+        assertEquals(12345678901L, row.getLong(0));
+        assertEquals(47.37, row.getDouble(1));
+        assertEquals("Ann", row.getString(2));
+        assertTrue(row.getBoolean(3));
+        assertTrue(row.isNull(4));
+        assertEquals(3, row.getInt(5));
+        assertEquals(ValueType.ARRAY, row.valueType(6));
+        assertEquals("b", row.getAny(6).toString(1));
+        assertEquals(8.54, row.getDouble(7));
+        assertFalse(row.isPresent(8));
+        assertEquals(8, projection.slot("$.missing.x"));
+    }
+
+    public void test_reuse_row() throws IOException {
+        Projection projection = JsonIterator.compileProjection("$.a", "$.b.c");
+        assertSame(projection, JsonIterator.compileProjection("$.a", "$.b.c"));
+        ProjectionRow row = projection.newRow();
+        JsonIterator iter = JsonIterator.parse("{\"a\": 1, \"b\": {\"c\": \"x\"}} {\"a\": 2.5, \"b\": 3} [1]");
+        projection.read(iter, row);
+        assertEquals(1, row.getLong(0));
+        assertEquals("x", row.getString(1));
+        projection.read(iter, row);
+        assertEquals(2.5, row.getDouble(0));
+        assertFalse(row.isPresent(1));
+        projection.read(iter, row);
+        assertFalse(row.isPresent(0));
+        try {
+            projection.read(JsonIterator.parse("{}"), JsonIterator.compileProjection("$.x", "$.y").newRow());
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
+    public void test_tyson() throws IOException {
+        String input = "(\"reading\") {\"sensor\": (\"sensor\") {\"id\": (\"integer\") 42}, \"value\": (\"double\") \"NaN\"," +
+                " \"flags\": (\"flags\") [(\"boolean\") \"true\"]}";
+        ProjectionRow row = JsonIterator.compileProjection("$.sensor.id", "$.value", "$.flags[0]").read(JsonIterator.parse(input));
+        assertEquals(42, row.getLong(0));
+        assertEquals("integer", row.typeName(0));
+        assertTrue(Double.isNaN(row.getDouble(1)));
+        assertTrue(row.getBoolean(2));
+        assertEquals("boolean", row.typeName(2));
+    }
+
+    public void test_hash_collision() throws IOException {
+        // "costarring" and "liquid" have the same FNV-1a hash
+        assertEquals(CodegenImplObjectHash.calcHash("costarring"), CodegenImplObjectHash.calcHash("liquid"));
+        ProjectionRow row = JsonIterator.compileProjection("$.costarring", "$.liquid")
+                .read(JsonIterator.parse("{\"liquid\": 2, \"costarring\": 1}"));
+        assertEquals(1, row.getLong(0));
+        assertEquals(2, row.getLong(1));
+    }
+
+    public void test_invalid_paths() {
+        String[][] invalid = {{"user.id"}, {"$.a", "$.a"}, {"$.a", "$.a.b"}, {"$.a.b", "$.a"}, {"$.a[0]", "$.a.b"},
+                {"$..a"}, {"$.a[x]"}, {"$.a['b"}, {"$.a[-1]"}, {}};
+        for (String[] paths : invalid) {
+            try {
+                JsonIterator.compileProjection(paths);
+                fail(java.util.Arrays.toString(paths));
+            } catch (JsonException e) {
+            }
+        }
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_streaming() throws IOException {
+        Projection projection = JsonIterator.compileProjection("$.user.id", "$.geo.lat", "$.readings[2].v");
+        ProjectionRow row = projection.read(JsonIterator.parse(new ByteArrayInputStream(INPUT.getBytes()), 3));
+        assertEquals(12345678901L, row.getLong(0));
+        assertEquals(47.37, row.getDouble(1));
+        assertEquals(3, row.getLong(2));
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_streaming_integers() throws IOException {
+        Projection projection = JsonIterator.compileProjection("$.id", "$.min", "$.big", "$.small");
+        String input = "{\"id\": 9007199254740993, \"min\": -9223372036854775808, \"big\": 9223372036854775808, \"small\": -7}";
+        for (int bufSize = 2; bufSize < 20; bufSize += 5) {
+            ProjectionRow row = projection.read(JsonIterator.parse(new ByteArrayInputStream(input.getBytes()), bufSize));
+            assertEquals(9007199254740993L, row.getLong(0));
+            assertEquals(Long.MIN_VALUE, row.getLong(1));
+            assertEquals(9223372036854775808d, row.getDouble(2));
+            assertEquals(-7, row.getInt(3));
+            assertEquals("-7", row.getAny(3).toString());
+        }
+        ProjectionRow row = projection.read(JsonIterator.parse(input));
+        assertEquals(9007199254740993L, row.getLong(0));
+        assertEquals(Long.MIN_VALUE, row.getLong(1));
+        assertEquals(9223372036854775808d, row.getDouble(2));
+    }
+
+    public void test_overflow() throws IOException {
+        Projection projection = JsonIterator.compileProjection("$.big", "$.int", "$.huge", "$.min", "$.name");
+        ProjectionRow row = projection.read(JsonIterator.parse(
+                "{\"big\": 9223372036854775808, \"int\": 3000000000, \"huge\": -1e30, \"min\": -2147483648.5," +
+                        " \"name\": (\"foo\") \"q\"}"));
+        for (int slot = 0; slot < 3; slot++) {
+            try {
+                row.getInt(slot);
+                fail(row.path(slot));
+            } catch (JsonException e) {
+            }
+        }
+        try {
+            row.getLong(0);
+            fail();
+        } catch (JsonException e) {
+        }
+        assertEquals(3000000000L, row.getLong(1));
+        try {
+            row.getLong(2);
+            fail();
+        } catch (JsonException e) {
+        }
+        assertEquals(Integer.MIN_VALUE, row.getInt(3));
+        assertEquals(ValueType.USERDEFINEDATOMIC, row.valueType(4));
+        assertEquals("foo", row.typeName(4));
+        assertEquals("q", row.getString(4));
+    }
+}
@@ -0,0 +1,156 @@
+package com.jsoniter;
+
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.SchemaRegistry;
+import com.jsoniter.spi.TypeDefinition;
+import junit.framework.TestCase;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class TestSchemaRegistry extends TestCase {
+
+    static {
+        SchemaRegistry.define(TypeDefinition.atomic("zip", "string").minLength(4).maxLength(5));
+        SchemaRegistry.define(TypeDefinition.atomic("age", "integer").minInclusive(0).maxInclusive(150));
+        SchemaRegistry.define(TypeDefinition.atomic("color", "string").enumeration("red", "green"));
+        SchemaRegistry.define(TypeDefinition.object("address")
+                .field("zip", "zip", true)
+                .field("city", "string")
+                .closed());
+        SchemaRegistry.define(TypeDefinition.object("person")
+                .field("name", "string", true)
+                .field("age", "age")
+                .field("address", "address")
+                .field("friends", "people"));
+        SchemaRegistry.define(TypeDefinition.array("people", "person").maxLength(2));
+    }
+
+    public void test_atomic() throws IOException {
+        assertEquals("8000", JsonIterator.parse("(\"zip\") \"8000\"").readValidated("zip"));
+        assertEquals("8000", JsonIterator.parse("\"8000\"").readValidated("zip"));
+        assertEquals(17, JsonIterator.parse("17").readValidated("age"));
+        assertEquals("red", JsonIterator.parse("\"red\"").readValidated("color"));
+        assertInvalid("\"800\"", "zip");
+        assertInvalid("\"800000\"", "zip");
+        assertInvalid("8000", "zip");
+        assertInvalid("-1", "age");
+        assertInvalid("1.5", "age");
+        assertInvalid("\"blue\"", "color");
+    }
+
+    public void test_built_in() throws IOException {
+        assertEquals(new BigDecimal("1.5"), JsonIterator.parse("1.5").readValidated("decimal"));
+        assertEquals(1.0d, JsonIterator.parse("1").readValidated("double"));
+        assertEquals(Boolean.TRUE, JsonIterator.parse("true").readValidated("boolean"));
+        assertInvalid("1.5", "integer");
+        assertInvalid("\"1\"", "integer");
+    }
+
+    public void test_object() throws IOException {
+        JsonIterator iter = JsonIterator.parse("(\"person\") {\"name\": \"tom\", \"age\": (\"age\") 17, " +
+                "\"address\": {\"zip\": \"8000\", \"city\": \"zurich\"}, \"nickname\": \"t\"}");
+        assertEquals(ValueType.USERDEFINEDOBJECT, iter.whatIsNext());
+        Map person = (Map) iter.readValidated(iter.lastTysonType().name());
+        assertEquals("tom", person.get("name"));
+        assertEquals(17, person.get("age"));
+        assertEquals("zurich", ((Map) person.get("address")).get("city"));
+        assertEquals("t", person.get("nickname"));
+        assertInvalid("{\"age\": 17}", "person");
+        assertInvalid("{\"name\": \"tom\", \"address\": {\"zip\": \"8000\", \"street\": \"main\"}}", "person");
+        assertInvalid("{\"name\": \"tom\", \"address\": {\"city\": \"zurich\"}}", "person");
+        assertInvalid("{\"name\": \"tom\", \"age\": (\"integer\") 17}", "person");
+        assertInvalid("[]", "person");
+    }
+
+    public void test_recursive_array() throws IOException {
+        Map person = (Map) JsonIterator.parse("{\"name\": \"tom\", \"friends\": " +
+                "[{\"name\": \"jerry\"}, (\"person\") {\"name\": \"spike\", \"friends\": []}]}").readValidated("person");
+        List friends = (List) person.get("friends");
+        assertEquals(2, friends.size());
+        assertEquals("spike", ((Map) friends.get(1)).get("name"));
+        assertInvalid("[{\"name\": \"a\"}, {\"name\": \"b\"}, {\"name\": \"c\"}]", "people");
+        assertInvalid("[{\"name\": \"a\", \"age\": 200}]", "people");
+    }
+
+    public void test_redefine() throws IOException {
+        SchemaRegistry.define(TypeDefinition.atomic("code", "string").maxLength(2));
+        assertEquals("ab", JsonIterator.parse("\"ab\"").readValidated("code"));
+        SchemaRegistry.define(TypeDefinition.atomic("code", "string").maxLength(1));
+        assertInvalid("\"ab\"", "code");
+    }
+
+    public void test_exact_bounds() throws IOException {
+        SchemaRegistry.define(TypeDefinition.atomic("big", "integer").maxInclusive(new BigDecimal("9007199254740993")));
+        SchemaRegistry.define(TypeDefinition.atomic("tenth", "decimal").minInclusive(0.1));
+        SchemaRegistry.define(TypeDefinition.atomic("ratio", "double").minInclusive(-1).maxInclusive(new BigDecimal("1e400")));
+        assertEquals(9007199254740993L, JsonIterator.parse("9007199254740993").readValidated("big"));
+        assertInvalid("9007199254740994", "big");
+        SchemaRegistry.define(TypeDefinition.atomic("long", "integer")
+                .minInclusive(BigDecimal.valueOf(Long.MIN_VALUE)).maxInclusive(BigDecimal.valueOf(Long.MAX_VALUE)));
+        assertEquals(Long.MAX_VALUE, JsonIterator.parse("9223372036854775807").readValidated("long"));
+        assertInvalid("9223372036854775808", "long");
+        assertInvalid("-9223372036854775809000", "long");
+        SchemaRegistry.define(TypeDefinition.atomic("huge", "integer").minInclusive(new BigDecimal("1e20")));
+        assertEquals(1e21, JsonIterator.parse("1000000000000000000000").readValidated("huge"));
+        assertInvalid("99999999999999999", "huge");
+        assertEquals(new BigDecimal("0.1"), JsonIterator.parse("0.1").readValidated("tenth"));
+        assertInvalid("0.09999999999999999999", "tenth");
+        assertEquals(1e300, JsonIterator.parse("1e300").readValidated("ratio"));
+        assertInvalid("-1.5", "ratio");
+        assertInvalid("(\"double\") \"NaN\"", "ratio");
+        try {
+            TypeDefinition.atomic("nan", "double").maxInclusive(Double.NaN);
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
+    public void test_skip_validated() throws IOException {
+        JsonIterator iter = JsonIterator.parse("[{\"name\": \"tom\", \"friends\": [{\"name\": \"jerry\", \"extra\": [1]}]}, 2]");
+        assertTrue(iter.readArray());
+        iter.skipValidated("person");
+        assertTrue(iter.readArray());
+        assertEquals(2, iter.readInt());
+        iter = JsonIterator.parse("{\"name\": \"tom\", \"friends\": [{\"age\": 1}]}");
+        try {
+            iter.skipValidated("person");
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
+    public void test_redefine_referenced_type() throws IOException {
+        SchemaRegistry.define(TypeDefinition.atomic("score", "integer").maxInclusive(10));
+        SchemaRegistry.define(TypeDefinition.object("player").field("score", "score"));
+        assertInvalid("{\"score\": 20}", "player");
+        SchemaRegistry.define(TypeDefinition.atomic("score", "integer").maxInclusive(100));
+        assertEquals(20, ((Map) JsonIterator.parse("{\"score\": 20}").readValidated("player")).get("score"));
+    }
+
+    public void test_unknown_type() throws IOException {
+        assertInvalid("1", "not-defined");
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_streaming() throws IOException {
+        byte[] input = "(\"people\") [{\"name\": \"tom\", \"address\": (\"address\") {\"zip\": \"8000\"}}]".getBytes();
+        JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream(input), 2);
+        assertEquals(ValueType.USERDEFINEDARRAY, iter.whatIsNext());
+        List people = (List) iter.readValidated("people");
+        assertEquals(Arrays.asList("tom"), Arrays.asList(((Map) people.get(0)).get("name")));
+    }
+
+    private static void assertInvalid(String input, String typeName) throws IOException {
+        try {
+            JsonIterator.parse(input).readValidated(typeName);
+            fail(input + " should not be a valid " + typeName);
+        } catch (JsonException e) {
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.Slice;
+import junit.framework.TestCase;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.util.Map;
+
+public class TestSegmentedInput extends TestCase {
+
+    private static final String INPUT = "(\"points\") [{\"x\": 1, \"y\": (\"decimal\") 2.5, \"z\": -12345678901},"
+            + " {\"name\": \"a\\\"b\\\\\", \"tags\": [true, false, null]}, (\"integer\") 3, \"\\u00e9\", 1e10]";
+
+    // slices at the given positions of a larger array, so that segments do not start at 0
+    private static Slice[] split(String input, int... seams) {
+        byte[] bytes = input.getBytes();
+        Slice[] segments = new Slice[seams.length + 1];
+        int head = 0;
+        for (int i = 0; i <= seams.length; i++) {
+            int tail = i == seams.length ? bytes.length : seams[i];
+            byte[] data = new byte[tail - head + 3];
+            System.arraycopy(bytes, head, data, 2, tail - head);
+            segments[i] = new Slice(data, 2, 2 + tail - head);
+            head = tail;
+        }
+        return segments;
+    }
+
+    public void test_single_segment() throws IOException {
+        Slice[] segments = split(INPUT);
+        JsonIterator iter = JsonIterator.parse(segments);
+        assertSame(segments[0].data(), iter.buf);
+        assertEquals(JsonIterator.deserialize(INPUT).toString(), iter.readAny().toString());
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_every_seam() throws IOException {
+        String expected = JsonIterator.deserialize(INPUT).toString();
+        int length = INPUT.getBytes().length;
+        for (int i = 0; i <= length; i++) {
+            assertEquals(expected, JsonIterator.parse(split(INPUT, i)).readAny().toString());
+            for (int j = i; j <= length; j += 7) {
+                assertEquals(expected, JsonIterator.parse(split(INPUT, i, j, j)).readAny().toString());
+            }
+        }
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_bind_every_seam() throws IOException {
+        String input = "{\"a\": [1, 2, 3], \"b\": {\"c\": \"text\"}, \"d\": 1.25}";
+        for (int i = 0; i <= input.length(); i++) {
+            Map<String, Object> map = JsonIterator.parse(split(input, i)).read(Map.class);
+            assertEquals(3, map.size());
+            assertEquals(1.25, map.get("d"));
+        }
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_no_copy_between_values() throws IOException {
+        Slice[] segments = split("[123, 456, 78]", 7, 11);
+        JsonIterator iter = JsonIterator.parse(segments);
+        assertTrue(iter.readArray());
+        assertEquals(123, iter.readInt());
+        assertTrue(iter.readArray());
+        assertEquals(456, iter.readInt());
+        assertSame(segments[1].data(), iter.buf);
+        assertTrue(iter.readArray());
+        assertEquals(78, iter.readInt());
+        assertFalse(iter.readArray());
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_skip_across_many_segments() throws IOException {
+        StringBuilder input = new StringBuilder("[[");
+        for (int i = 0; i < 1000; i++) {
+            input.append(i).append(',');
+        }
+        input.append("0], 42]");
+        int[] seams = new int[input.length() / 3];
+        for (int i = 0; i < seams.length; i++) {
+            seams[i] = i * 3;
+        }
+        JsonIterator iter = JsonIterator.parse(split(input.toString(), seams));
+        Any any = iter.readAny();
+        assertEquals(999, any.toInt(0, 999));
+        assertEquals(42, any.toInt(1));
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_values_at_every_seam() throws IOException {
+        String input = "[12345678901, -7, 2.5e-3, 0.125, (\"point\") {\"x\": 1}, 65536, \"s\", 10]";
+        int length = input.getBytes().length;
+        for (int i = 0; i <= length; i++) {
+            JsonIterator iter = JsonIterator.parse(split(input, i));
+            assertTrue(iter.readArray());
+            assertEquals(12345678901L, iter.readLong());
+            assertTrue(iter.readArray());
+            assertEquals(-7, iter.readInt());
+            assertTrue(iter.readArray());
+            assertEquals(2.5e-3, iter.readDouble());
+            assertTrue(iter.readArray());
+            assertEquals(0.125f, iter.readFloat());
+            assertTrue(iter.readArray());
+            Any point = iter.readAny();
+            assertEquals("point", point.typeName());
+            assertEquals(1, point.toInt("x"));
+            assertTrue(iter.readArray());
+            assertEquals(TysonType.INTEGER, iter.numberType());
+            assertEquals(65536, iter.readInt());
+            assertTrue(iter.readArray());
+            assertEquals("s", iter.readAny().toString());
+            assertTrue(iter.readArray());
+            assertEquals(10, iter.readInt());
+            assertFalse(iter.readArray());
+        }
+    }
+
+    // away from a seam, a lazy Any refers to the bytes of the segment
+    public void test_any_read_in_place() throws IOException {
+        if (IterImplForStreaming.class.isAssignableFrom(IterImpl.class)) {
+            // streaming enabled for the whole vm, there is no in memory path
+            return;
+        }
+        Slice[] segments = split("[{\"a\": 1}, {\"a\": 2}]", 14);
+        JsonIterator iter = JsonIterator.parse(segments);
+        assertTrue(iter.readArray());
+        Any first = iter.readAny();
+        segments[0].data()[2 + 7] = '7';
+        assertEquals(7, first.toInt("a"));
+        assertTrue(iter.readArray());
+        assertEquals(2, iter.readAny().toInt("a"));
+        assertFalse(iter.readArray());
+    }
+}
@@ -74,4 +74,60 @@ public class TestSkip extends TestCase {
         assertEquals(2, iter.readInt());
         assertFalse(iter.readArray());
     }
+
+    public void test_skip_long_strings() throws IOException {
+        // brackets and escaped quotes inside strings, at every offset of a word
+        String padding = "";
+        for (int i = 0; i < 17; i++) {
+            JsonIterator iter = JsonIterator.parse(("[{'a" + padding + "': ['b]}" + padding + "\\\\', '\\'{[" + padding + "'], " +
+                    "'c': {'d': '" + padding + "\\\\\\'}'}}, ['" + padding + "]\\\\'], 2]").replace('\'', '"'));
+            assertTrue(iter.readArray());
+            iter.skip();
+            assertTrue(iter.readArray());
+            iter.skip();
+            assertTrue(iter.readArray());
+            assertEquals(2, iter.readInt());
+            assertFalse(iter.readArray());
+            padding += "x";
+        }
+    }
+
+    public void test_skip_annotated() throws IOException {
+        JsonIterator iter = JsonIterator.parse("[(\"person\") {\"name\": (\"my-name\") \"a)\"}, (\"integer\")1, " +
+                "(\"my-array\") [(\"null\") null], (\"boolean\") \"true\", 2]");
+        assertTrue(iter.readArray());
+        iter.skip();
+        assertTrue(iter.readArray());
+        iter.skip();
+        assertTrue(iter.readArray());
+        iter.skip();
+        assertTrue(iter.readArray());
+        iter.skip();
+        assertTrue(iter.readArray());
+        assertEquals(2, iter.readInt());
+        assertFalse(iter.readArray());
+    }
+
+    public static class TestObject1 {
+        public int field1;
+    }
+
+    public void test_skip_annotated_unknown_field() throws IOException {
+        TestObject1 obj = JsonIterator.deserialize("{\"extra\": (\"person\") {\"tags\": (\"tags\") [1, (\"x\") \"y\"]}, " +
+                "\"field1\": 100, \"other\": (\"double\") \"NaN\"}", TestObject1.class);
+        assertEquals(100, obj.field1);
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_skip_annotated_streaming() throws IOException {
+        JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream(
+                "[(\"person\") {\"name\": (\"my-name\") \"hello\"},   (\"integer\")   12345, 2]".getBytes()), 2);
+        assertTrue(iter.readArray());
+        iter.skip();
+        assertTrue(iter.readArray());
+        iter.skip();
+        assertTrue(iter.readArray());
+        assertEquals(2, iter.readInt());
+        assertFalse(iter.readArray());
+    }
 }
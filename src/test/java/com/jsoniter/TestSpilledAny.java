@@ -0,0 +1,202 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.output.JsonStream;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class TestSpilledAny extends TestCase {
+
+    private static final int THRESHOLD = 1024;
+
+    private static String items(int count) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append("{\"id\": ").append(i).append(", \"label\": \"item ").append(i).append("\"}");
+        }
+        return builder.append("]").toString();
+    }
+
+    private static JsonIterator stream(String input) {
+        JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream(input.getBytes()), 64);
+        iter.spillLazyAny(THRESHOLD);
+        return iter;
+    }
+
+    public void test_array() throws IOException {
+        String input = items(2000);
+        JsonIterator iter = stream(input);
+        Any any = iter.readAny();
+        assertTrue(iter.buf.length <= 2 * THRESHOLD);
+        assertEquals(ValueType.ARRAY, any.valueType());
+        assertEquals(2000, any.size());
+        assertEquals(1500, any.toInt(1500, "id"));
+        assertEquals("item 1999", any.toString(1999, "label"));
+        assertEquals(ValueType.INVALID, any.get(2000).valueType());
+        int sum = 0;
+        for (Any element : any) {
+            sum += element.toInt("id");
+        }
+        assertEquals(1999 * 1000, sum);
+        assertEquals(2000, any.get('*', "id").size());
+        assertEquals(JsonIterator.deserialize(input).toString(), any.toString());
+        assertEquals(input, JsonStream.serialize(any));
+    }
+
+    // more elements than recorded positions, the others are found by skipping from the closest one
+    public void test_index_by_stride() throws IOException {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            builder.append(i == 0 ? "" : ",").append(i);
+        }
+        Any any = stream(builder.append("]").toString()).readAny();
+        assertEquals(5000, any.size());
+        for (int i : new int[]{0, 1, 2, 1023, 1024, 1025, 2047, 2048, 4095, 4096, 4999}) {
+            assertEquals(i, any.toInt(i));
+        }
+        int expected = 0;
+        for (Any element : any) {
+            assertEquals(expected++, element.toInt());
+        }
+        assertEquals(5000, expected);
+        ((Closeable) any).close();
+    }
+
+    public void test_object() throws IOException {
+        String input = "{\"count\": 2000, \"items\": " + items(2000) + ", \"done\": true}";
+        JsonIterator iter = stream(input);
+        Any any = iter.readAny();
+        assertTrue(iter.buf.length <= 2 * THRESHOLD);
+        assertEquals(ValueType.OBJECT, any.valueType());
+        assertEquals(3, any.size());
+        assertEquals("[count, items, done]", any.keys().toString());
+        assertEquals(2000, any.toInt("count"));
+        assertEquals("item 7", any.toString("items", 7, "label"));
+        assertEquals(ValueType.INVALID, any.get("missing").valueType());
+        assertEquals(ValueType.INVALID, any.get("items", 3, "missing").valueType());
+        Any.EntryIterator entries = any.entries();
+        int fields = 0;
+        while (entries.next()) {
+            fields++;
+        }
+        assertEquals(3, fields);
+        Map<String, Object> map = any.as(Map.class);
+        assertEquals(Boolean.TRUE, map.get("done"));
+    }
+
+    public void test_annotated() throws IOException {
+        JsonIterator iter = stream("(\"points\") " + items(100));
+        Any any = iter.readAny();
+        assertEquals("points", any.typeName());
+        assertEquals(100, any.size());
+        assertEquals(42, any.toInt(42, "id"));
+    }
+
+    public void test_string() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append(i % 10);
+        }
+        JsonIterator iter = stream("[\"" + builder + "\", \"\\\"short\\\"\"]");
+        assertTrue(iter.readArray());
+        Any any = iter.readAny();
+        assertTrue(iter.buf.length <= 2 * THRESHOLD);
+        assertEquals(ValueType.STRING, any.valueType());
+        assertEquals(builder.toString(), any.toString());
+        assertTrue(iter.readArray());
+        assertEquals("\"short\"", iter.readAny().toString());
+    }
+
+    public void test_small_values_are_not_spilled() throws IOException {
+        String input = items(3);
+        JsonIterator iter = stream(input);
+        iter.spillLazyAny(input.length());
+        assertEquals(input, iter.readAny().toString());
+        assertFalse(iter.spillFile.isStarted());
+    }
+
+    public void test_skip_keeps_no_bytes() throws IOException {
+        JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream(("[" + items(2000) + ", 1]").getBytes()), 64);
+        assertTrue(iter.readArray());
+        iter.skip();
+        assertEquals(64, iter.buf.length);
+        assertTrue(iter.readArray());
+        assertEquals(1, iter.readInt());
+    }
+
+    private static Set<File> spillFiles() {
+        Set<File> spillFiles = new HashSet<File>();
+        for (File file : new File(System.getProperty("java.io.tmpdir")).listFiles()) {
+            if (file.getName().startsWith("jsoniter") && file.getName().endsWith(".spill")) {
+                spillFiles.add(file);
+            }
+        }
+        return spillFiles;
+    }
+
+    private static File spilledBy(Set<File> before) {
+        Set<File> created = spillFiles();
+        created.removeAll(before);
+        assertEquals(1, created.size());
+        return created.iterator().next();
+    }
+
+    public void test_navigation_reads_the_same_file() throws IOException {
+        String input = "{\"count\": 2000, \"items\": " + items(2000) + ", \"nested\": [" + items(500) + "]}";
+        Set<File> before = spillFiles();
+        Any any = stream(input).readAny();
+        File file = spilledBy(before);
+        for (int pass = 0; pass < 3; pass++) {
+            assertEquals(2000, any.get("items").size());
+            assertEquals("item 1999", any.toString("items", 1999, "label"));
+            assertEquals(499, any.toInt("nested", 0, 499, "id"));
+            for (Any element : any.get("items")) {
+                element.toInt("id");
+            }
+        }
+        assertEquals(file, spilledBy(before));
+        ((Closeable) any).close();
+        assertFalse(file.exists());
+    }
+
+    public void test_unreachable_file_is_deleted() throws IOException, InterruptedException {
+        Set<File> before = spillFiles();
+        Any any = stream(items(2000)).readAny();
+        assertEquals(1999, any.toInt(1999, "id"));
+        File file = spilledBy(before);
+        any = null;
+        for (int i = 0; i < 50 && file.exists(); i++) {
+            System.gc();
+            Thread.sleep(10);
+            // unreachable files are deleted when the next one is spilled
+            ((Closeable) stream(items(2000)).readAny()).close();
+        }
+        assertFalse(file.exists());
+    }
+
+    public void test_annotator_writes_large_values_as_it_reads() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append(i % 10);
+        }
+        String input = "{\"text\": \"" + builder + "\"}";
+        JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream(input.getBytes()), 64);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonStream stream = new JsonStream(out, 64);
+        TysonAnnotator.annotate(iter, stream);
+        stream.flush();
+        assertEquals(64, iter.buf.length);
+        assertEquals(input.replace(" ", ""), out.toString());
+    }
+}
@@ -0,0 +1,120 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.util.List;
+
+public class TestStructuralIndex extends TestCase {
+
+    public static class Sensor {
+        public String name;
+        public double value;
+    }
+
+    public void test_build() {
+        String input = "{'a': [1, {'b': '[{\\\\', 'c': '\\\\\\''}], 'd': ('object') {}}".replace('\'', '"');
+        StructuralIndex index = StructuralIndex.build(input.getBytes());
+        assertEquals(4, index.containerCount());
+    }
+
+    public void test_skip() throws IOException {
+        String input = "[[1, {'a': ['b', ']}'] }, '\\\\', 3], ('array') [], {'x': '\\'['}, 2]".replace('\'', '"');
+        JsonIterator iter = JsonIterator.parseIndexed(input);
+        assertTrue(iter.readArray());
+        iter.skip();
+        assertTrue(iter.readArray());
+        iter.skip();
+        assertTrue(iter.readArray());
+        iter.skip();
+        assertTrue(iter.readArray());
+        assertEquals(2, iter.readInt());
+        assertFalse(iter.readArray());
+    }
+
+    public void test_skip_same_as_scan() throws IOException {
+        String input = "{'sensors': [{'name': 'a', 'history': [1, 2, [3]], 'value': 1.5}, " +
+                "{'name': 'b}', 'extra': {'deep': {'deeper': []}}, 'value': 2.5}], 'count': 2}";
+        input = input.replace('\'', '"');
+        List<Sensor> sensors = JsonIterator.parseIndexed(input).readAny().get("sensors").as(new com.jsoniter.spi.TypeLiteral<List<Sensor>>() {
+        });
+        assertEquals(2, sensors.size());
+        assertEquals("b}", sensors.get(1).name);
+        assertEquals(2.5, sensors.get(1).value);
+        Sensor sensor = JsonIterator.parseIndexed(input).readAny().get("sensors", 0).as(Sensor.class);
+        assertEquals("a", sensor.name);
+        assertEquals(1.5, sensor.value);
+    }
+
+    public void test_lazy_any() throws IOException {
+        String input = "{'a': [{'x': [1, 2]}, {'x': [3, [4, 5]]}], 'b': {'c': 'd'}}".replace('\'', '"');
+        Any any = JsonIterator.parseIndexed(input).readAny();
+        assertEquals(5, any.toInt("a", 1, "x", 1, 1));
+        assertEquals("d", any.toString("b", "c"));
+        assertEquals(2, any.get("a").size());
+        Any scanned = JsonIterator.deserialize(input);
+        scanned.toInt("a", 1, "x", 1, 1);
+        scanned.get("b", "c");
+        assertEquals(scanned.toString(), any.toString());
+    }
+
+    public void test_malformed() throws IOException {
+        // unmatched and mismatched brackets are not indexed, they are scanned the same way as without index
+        String[] inputs = {"[1, [2, 3]", "[[2, 3], [1, [2, 3]", "[{2]}, 3]", "{\"a\": [}", "[\"]"};
+        for (String input : inputs) {
+            assertEquals(input, skip(JsonIterator.parse(input)), skip(JsonIterator.parseIndexed(input)));
+        }
+        JsonIterator iter = JsonIterator.parseIndexed("[{2]}, 3]");
+        assertTrue(iter.readArray());
+        iter.skip();
+        assertTrue(iter.readArray());
+        assertEquals(3, iter.readInt());
+    }
+
+    public void test_mismatch_abandons_enclosing_containers() throws IOException {
+        // the scanners track one kind of bracket, the index must not end these containers elsewhere
+        String[] inputs = {"[{]]", "{\"a\":[}}", "[[{]], 1]", "[{}, [}], [2]]", "{\"a\": {\"b\": [}}, \"c\": {}}", "[[]}, [1]]"};
+        for (String input : inputs) {
+            assertEquals(input, skip(JsonIterator.parse(input)), skip(JsonIterator.parseIndexed(input)));
+            JsonIterator plain = JsonIterator.parse(input);
+            JsonIterator indexed = JsonIterator.parseIndexed(input);
+            // the nested containers, skipped one after the other
+            for (int i = 0; i < 3; i++) {
+                String expected = enter(plain);
+                assertEquals(input, expected, enter(indexed));
+                assertEquals(input, skip(plain), skip(indexed));
+            }
+        }
+        assertEquals(4, StructuralIndex.build("[[], {}, [}]".getBytes()).containerCount());
+    }
+
+    private static String enter(JsonIterator iter) {
+        try {
+            if (iter.whatIsNext() == ValueType.OBJECT) {
+                return "field " + iter.readObject();
+            }
+            return "element " + iter.readArray();
+        } catch (Exception e) {
+            return e.toString();
+        }
+    }
+
+    private static String skip(JsonIterator iter) {
+        try {
+            iter.skip();
+            return "skipped to " + iter.head;
+        } catch (Exception e) {
+            return e.toString();
+        }
+    }
+
+    public void test_reset_drops_index() throws IOException {
+        JsonIterator iter = JsonIterator.parseIndexed("[[1], 2]");
+        iter.reset("[[1, 2, 3], 4]".getBytes());
+        assertTrue(iter.readArray());
+        iter.skip();
+        assertTrue(iter.readArray());
+        assertEquals(4, iter.readInt());
+    }
+}
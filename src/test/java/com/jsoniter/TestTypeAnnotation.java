@@ -0,0 +1,210 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.Slice;
+import junit.framework.TestCase;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class TestTypeAnnotation extends TestCase {
+
+    public void test_last_type_annotation() throws IOException {
+        JsonIterator iter = JsonIterator.parse("{\"a\": (\"my-object\") {\"b\": (\"value\") \"x\"}}");
+        assertEquals("a", iter.readObject());
+        assertEquals(ValueType.USERDEFINEDOBJECT, iter.whatIsNext());
+        Slice annotation = iter.lastTypeAnnotation();
+        assertEquals("my-object", annotation.toString());
+        assertEquals("\"my-object\"", iter.readTypeName());
+        assertEquals("b", iter.readObject());
+        assertEquals(ValueType.USERDEFINEDATOMIC, iter.whatIsNext());
+        assertEquals("value", iter.lastTypeAnnotation().toString());
+        assertEquals("x", iter.readLiteral());
+    }
+
+    public void test_read_type_name_of_unannotated_value() throws IOException {
+        JsonIterator iter = JsonIterator.parse("[(\"my-array\") [], []]");
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.USERDEFINEDARRAY, iter.whatIsNext());
+        assertEquals("\"my-array\"", iter.readTypeName());
+        iter.skip();
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.ARRAY, iter.whatIsNext());
+        try {
+            iter.readTypeName();
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
+    public void test_no_annotation() throws IOException {
+        JsonIterator iter = JsonIterator.parse("[]");
+        assertEquals(ValueType.ARRAY, iter.whatIsNext());
+        assertNull(iter.lastTypeAnnotation());
+    }
+
+    public void test_number_type() throws IOException {
+        JsonIterator iter = JsonIterator.parse("[12, -3.5, 1e3, 9223372036854775807, 12345678901234567890]");
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.NUMBER, iter.whatIsNext());
+        assertSame(TysonType.INTEGER, iter.numberType());
+        assertEquals(12, iter.readInt());
+        assertTrue(iter.readArray());
+        assertSame(TysonType.DECIMAL, iter.numberType());
+        assertEquals(-3.5, iter.readDouble(), 0);
+        assertTrue(iter.readArray());
+        assertSame(TysonType.DOUBLE, iter.numberType());
+        assertEquals(1000.0, iter.readDouble(), 0);
+        assertTrue(iter.readArray());
+        assertSame(TysonType.INTEGER, iter.numberType());
+        assertEquals(Long.MAX_VALUE, iter.read());
+        assertTrue(iter.readArray());
+        assertSame(TysonType.INTEGER, iter.numberType());
+        try {
+            iter.readLong();
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
+    public void test_number_type_of_lone_sign() throws IOException {
+        for (String input : new String[]{"-", "- ", "-]", "[-]", "-.5"}) {
+            JsonIterator memory = JsonIterator.parse(input);
+            JsonIterator stream = JsonIterator.parse(new ByteArrayInputStream(input.getBytes()), 1);
+            for (JsonIterator iter : new JsonIterator[]{memory, stream}) {
+                if (input.startsWith("[")) {
+                    assertTrue(iter.readArray());
+                }
+                try {
+                    iter.numberType();
+                    fail(input);
+                } catch (JsonException e) {
+                }
+            }
+        }
+        JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream("-12".getBytes()), 1);
+        assertSame(TysonType.INTEGER, iter.numberType());
+        assertEquals(-12, iter.readInt());
+    }
+
+    public void test_annotated_numbers() throws IOException {
+        JsonIterator iter = JsonIterator.parse("[(\"integer\") 1, (\"decimal\") 1.5, (\"decimal\") 2, (\"double\") 1.5e2]");
+        assertEquals(Arrays.asList(1, 1.5, 2, 150.0), iter.read());
+        iter = JsonIterator.parse("(\"integer\") 1.5");
+        try {
+            iter.whatIsNext();
+            fail();
+        } catch (JsonException e) {
+        }
+        iter = JsonIterator.parse("(\"decimal\") 1e5");
+        try {
+            iter.whatIsNext();
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
+    public void test_quoted_literals() throws IOException {
+        JsonIterator iter = JsonIterator.parse("[(\"boolean\") \"true\", (\"boolean\") \"false\", (\"null\") \"null\", " +
+                "(\"double\") \"NaN\", (\"double\") \"-INF\", (\"double\") \"+INF\", (\"double\") \"INF\", " +
+                "(\"boolean\") \"tru\\u0065\"]");
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.BOOLEAN, iter.whatIsNext());
+        assertTrue(iter.readBoolean());
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.BOOLEAN, iter.whatIsNext());
+        assertFalse(iter.readBoolean());
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.NULL, iter.whatIsNext());
+        assertTrue(iter.readNull());
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.NUMBER, iter.whatIsNext());
+        assertEquals(TysonType.DOUBLE, iter.numberType());
+        assertTrue(Double.isNaN(iter.readDouble()));
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.NUMBER, iter.whatIsNext());
+        assertEquals(Double.NEGATIVE_INFINITY, iter.readDouble());
+        assertTrue(iter.readArray());
+        assertEquals(Double.POSITIVE_INFINITY, iter.read());
+        assertTrue(iter.readArray());
+        assertEquals(Double.POSITIVE_INFINITY, iter.read());
+        assertTrue(iter.readArray());
+        // escaped content is a plain string
+        assertEquals(ValueType.STRING, iter.whatIsNext());
+        assertFalse(iter.readNull());
+        assertEquals("true", iter.readString());
+        assertFalse(iter.readArray());
+    }
+
+    public void test_quoted_literal_of_another_type() throws IOException {
+        JsonIterator iter = JsonIterator.parse("[(\"integer\") \"NaN\", (\"boolean\") \"INF\", (\"decimal\") \"true\", " +
+                "(\"null\") \"false\", (\"boolean\") \"null\"]");
+        String[] contents = {"NaN", "INF", "true", "false", "null"};
+        for (String content : contents) {
+            assertTrue(iter.readArray());
+            assertEquals(content, ValueType.STRING, iter.whatIsNext());
+            assertEquals(content, iter.readString());
+        }
+        assertFalse(iter.readArray());
+    }
+
+    public void test_read_quoted_literals() throws IOException {
+        assertEquals(Arrays.asList(true, null, "NaN", 1.5d),
+                JsonIterator.parse("[(\"boolean\") \"true\", (\"null\") \"null\", \"NaN\", 1.5]").read());
+        Any any = JsonIterator.deserialize("[(\"boolean\") \"false\", (\"double\") \"NaN\"]");
+        assertEquals(ValueType.BOOLEAN, any.get(0).valueType());
+        assertFalse(any.toBoolean(0));
+        assertEquals("boolean", any.get(0).typeName());
+        assertTrue(Double.isNaN(any.toDouble(1)));
+        try {
+            JsonIterator.parse("(\"double\") \"one\"").readDouble();
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_streaming_quoted_literals() throws IOException {
+        byte[] input = "[(\"boolean\") \"false\", (\"double\")   \"-INF\", (\"my-name\") \"falsey\"]".getBytes();
+        JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream(input), 2);
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.BOOLEAN, iter.whatIsNext());
+        assertFalse(iter.readBoolean());
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.NUMBER, iter.whatIsNext());
+        assertEquals(Double.NEGATIVE_INFINITY, iter.readDouble());
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.USERDEFINEDATOMIC, iter.whatIsNext());
+        assertEquals("falsey", iter.readString());
+        assertFalse(iter.readArray());
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_streaming() throws IOException {
+        byte[] input = ("{\"name\": (\"my-name\") \"hello\", \"flag\": (\"boolean\") \"true\", " +
+                "\"list\": (\"my-array\") [(\"integer\") 1, (\"null\") \"null\"]}").getBytes();
+        JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream(input), 2);
+        assertEquals("name", iter.readObject());
+        assertEquals(ValueType.USERDEFINEDATOMIC, iter.whatIsNext());
+        assertEquals("\"my-name\"", iter.readTypeName());
+        assertEquals("my-name", iter.lastTypeAnnotation().toString());
+        assertEquals("hello", iter.readLiteral());
+        assertEquals("flag", iter.readObject());
+        assertEquals(ValueType.BOOLEAN, iter.whatIsNext());
+        assertTrue(iter.readBoolean());
+        assertEquals("list", iter.readObject());
+        assertEquals(ValueType.USERDEFINEDARRAY, iter.whatIsNext());
+        assertEquals("\"my-array\"", iter.readTypeName());
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.NUMBER, iter.whatIsNext());
+        assertEquals(1, iter.readInt());
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.NULL, iter.whatIsNext());
+        assertTrue(iter.readNull());
+        assertFalse(iter.readArray());
+        assertNull(iter.readObject());
+    }
+}
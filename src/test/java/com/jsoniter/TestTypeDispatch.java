@@ -0,0 +1,107 @@
+package com.jsoniter;
+
+import com.jsoniter.spi.Config;
+import com.jsoniter.spi.DecodingMode;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.JsoniterSpi;
+import junit.framework.TestCase;
+
+public class TestTypeDispatch extends TestCase {
+
+    public static class Person {
+        public String name;
+    }
+
+    public static class Student extends Person {
+        public int grade;
+    }
+
+    public static class Teacher extends Person {
+        public String subject;
+    }
+
+    public static abstract class Shape {
+    }
+
+    public static class Circle extends Shape {
+        public double radius;
+    }
+
+    public static class Classroom {
+        public Person head;
+        public Shape shape;
+    }
+
+    private static Config config(DecodingMode mode) {
+        return new Config.Builder()
+                .decodingMode(mode)
+                .typeName("student", Student.class)
+                .typeName("teacher", Teacher.class)
+                .typeName("circle", Circle.class)
+                .build();
+    }
+
+    public void test_reflection() {
+        assertDispatch(config(DecodingMode.REFLECTION_MODE));
+    }
+
+    public void test_hash() {
+        assertDispatch(config(DecodingMode.DYNAMIC_MODE_AND_MATCH_FIELD_WITH_HASH));
+    }
+
+    public void test_strict() {
+        assertDispatch(config(DecodingMode.DYNAMIC_MODE_AND_MATCH_FIELD_STRICTLY));
+    }
+
+    // ids are given in the order types are first seen, a decoder generated in another run must not depend on them
+    public void test_names_interned_before_the_decoder() {
+        Config config = new Config.Builder()
+                .decodingMode(DecodingMode.DYNAMIC_MODE_AND_MATCH_FIELD_WITH_HASH)
+                .typeName("late_student", Student.class)
+                .typeName("late_teacher", Teacher.class)
+                .build();
+        for (int i = 0; i < 100; i++) {
+            TypeNameRegistry.register("interned_before_" + i);
+        }
+        TypeNameRegistry.register("late_teacher");
+        StringBuilder source = new StringBuilder();
+        JsoniterSpi.setCurrentConfig(config);
+        try {
+            CodegenImplObjectHash.appendTypeDispatch(source, Person.class);
+        } finally {
+            JsoniterSpi.clearCurrentConfig();
+        }
+        // the names are compared, the generated source holds no registry id
+        assertTrue(source.toString().contains("\"late_student\""));
+        assertTrue(source.toString().contains("\"late_teacher\""));
+        Person person = JsonIterator.deserialize(config, "(\"late_teacher\") {\"subject\": \"math\"}", Person.class);
+        assertEquals("math", ((Teacher) person).subject);
+        person = JsonIterator.deserialize(config, "(\"late_student\") {\"grade\": 2}", Person.class);
+        assertEquals(2, ((Student) person).grade);
+        person = JsonIterator.deserialize(config, "(\"interned_before_7\") {\"name\": \"x\"}", Person.class);
+        assertEquals(Person.class, person.getClass());
+    }
+
+    private void assertDispatch(Config config) {
+        Person person = JsonIterator.deserialize(config, "(\"student\") {\"name\": \"hello\", \"grade\": 3}", Person.class);
+        assertEquals(Student.class, person.getClass());
+        assertEquals("hello", person.name);
+        assertEquals(3, ((Student) person).grade);
+        person = JsonIterator.deserialize(config, "(\"teacher\"){\"name\":\"world\",\"subject\":\"math\"}", Person.class);
+        assertEquals("math", ((Teacher) person).subject);
+        person = JsonIterator.deserialize(config, "{\"name\": \"hello\"}", Person.class);
+        assertEquals(Person.class, person.getClass());
+        person = JsonIterator.deserialize(config, "(\"person\") {\"name\": \"hello\"}", Person.class);
+        assertEquals(Person.class, person.getClass());
+        assertEquals("hello", person.name);
+        Classroom classroom = JsonIterator.deserialize(config,
+                "{\"head\": (\"teacher\") {\"subject\": \"art\"}, \"shape\": (\"circle\") {\"radius\": 1.5}}", Classroom.class);
+        assertEquals("art", ((Teacher) classroom.head).subject);
+        assertEquals(1.5d, ((Circle) classroom.shape).radius);
+        try {
+            JsonIterator.deserialize(config, "{\"radius\": 1.5}", Shape.class);
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.jsoniter;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+
+public class TestTypeNameRegistry extends TestCase {
+
+    public void test_built_in_types() {
+        assertSame(TysonType.STRING, TypeNameRegistry.lookup("string"));
+        assertSame(TysonType.ARRAY, TypeNameRegistry.lookup("array"));
+        assertTrue(TysonType.INTEGER.isBuiltIn());
+        assertSame(TysonType.DOUBLE, TypeNameRegistry.byId(TysonType.DOUBLE.id()));
+    }
+
+    public void test_user_defined_type_is_interned() {
+        byte[] buf = "xxpersonxx".getBytes();
+        TysonType person = TypeNameRegistry.lookup(buf, 2, 8, CodegenImplObjectHash.calcHash("person"));
+        assertEquals("person", person.name());
+        assertFalse(person.isBuiltIn());
+        assertEquals(ValueType.INVALID, person.valueType());
+        assertSame(person, TypeNameRegistry.lookup("person"));
+        assertSame(person, TypeNameRegistry.byId(person.id()));
+    }
+
+    public void test_what_is_next_resolves_annotation() throws IOException {
+        JsonIterator iter = JsonIterator.parse("[(\"person\") {}, (\"person\") {}, (\"integer\") 5]");
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.USERDEFINEDOBJECT, iter.whatIsNext());
+        TysonType first = iter.lastTysonType();
+        assertNull(iter.readObject());
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.USERDEFINEDOBJECT, iter.whatIsNext());
+        assertSame(first, iter.lastTysonType());
+        assertNull(iter.readObject());
+        assertTrue(iter.readArray());
+        assertEquals(ValueType.NUMBER, iter.whatIsNext());
+        assertSame(TysonType.INTEGER, iter.lastTysonType());
+        assertEquals(5, iter.readInt());
+        assertFalse(iter.readArray());
+    }
+
+    public void test_annotation_without_whitespace() throws IOException {
+        JsonIterator iter = JsonIterator.parse("(\"array\")[1]");
+        assertEquals(ValueType.ARRAY, iter.whatIsNext());
+        assertTrue(iter.readArray());
+        assertEquals(1, iter.readInt());
+        assertFalse(iter.readArray());
+    }
+}
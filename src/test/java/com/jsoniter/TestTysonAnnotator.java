@@ -0,0 +1,60 @@
+package com.jsoniter;
+
+import com.jsoniter.output.JsonStream;
+import com.jsoniter.spi.JsonException;
+import junit.framework.TestCase;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class TestTysonAnnotator extends TestCase {
+
+    public void test_atomic_values() {
+        assertEquals("(\"integer\") 100", TysonAnnotator.annotate(" 100 "));
+        assertEquals("(\"decimal\") -1.5", TysonAnnotator.annotate("-1.5"));
+        assertEquals("(\"double\") 1e10", TysonAnnotator.annotate("1e10"));
+        assertEquals("(\"boolean\") true", TysonAnnotator.annotate("true"));
+        assertEquals("(\"null\") null", TysonAnnotator.annotate("null"));
+        assertEquals("\"h\\\"i\"", TysonAnnotator.annotate("\"h\\\"i\""));
+    }
+
+    public void test_containers() {
+        assertEquals("{\"a\\\"\":[(\"integer\") 1,(\"boolean\") false,{}],\"b\":[]}",
+                TysonAnnotator.annotate("{ \"a\\\"\" : [ 1 , false, { } ], \"b\": [] }"));
+    }
+
+    public void test_keep_annotations() {
+        String input = "(\"person\") {\"age\": (\"my-age\") 17, \"flag\": (\"boolean\") \"true\", \"tags\": (\"tags\") [1.5]}";
+        assertEquals("(\"person\") {\"age\":(\"my-age\") 17,\"flag\":(\"boolean\") \"true\",\"tags\":(\"tags\") [(\"decimal\") 1.5]}",
+                TysonAnnotator.annotate(input));
+    }
+
+    public void test_round_trip() {
+        String input = "{\"name\":\"hello\",\"scores\":[1,2.5,3E2,null,true]}";
+        assertEquals(input, TysonTranscoder.transcode(TysonAnnotator.annotate(input)));
+    }
+
+    public void test_invalid() {
+        try {
+            TysonAnnotator.annotate("[1 2]");
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_streaming() throws IOException {
+        String input = "[{\"name\": \"hello world\", \"scores\": [100, 2.5, -3e2, null]}, true, 1234567890123]";
+        String expected = "[{\"name\":\"hello world\",\"scores\":[(\"integer\") 100,(\"decimal\") 2.5,(\"double\") -3e2,(\"null\") null]}," +
+                "(\"boolean\") true,(\"integer\") 1234567890123]";
+        for (int bufSize = 2; bufSize < 16; bufSize++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JsonStream stream = new JsonStream(out, 32);
+            TysonAnnotator.annotate(JsonIterator.parse(new ByteArrayInputStream(input.getBytes()), bufSize), stream);
+            stream.flush();
+            assertEquals(expected, out.toString());
+        }
+    }
+}
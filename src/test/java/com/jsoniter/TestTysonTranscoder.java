@@ -0,0 +1,63 @@
+package com.jsoniter;
+
+import com.jsoniter.output.JsonStream;
+import com.jsoniter.spi.JsonException;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class TestTysonTranscoder extends TestCase {
+
+    public void test_strip_annotations() {
+        assertEquals("{\"name\": \"hello\", \"tags\": [1, true, null]}", TysonTranscoder.transcode(
+                "(\"person\") {\"name\": (\"string\") \"hello\", \"tags\": (\"tags\")[(\"integer\") 1, true, (\"null\")null]}"));
+        assertEquals("[1,2]", TysonTranscoder.transcode("[1,2]"));
+    }
+
+    public void test_parenthesis_in_string() {
+        assertEquals("{\"(\\\"a\\\")\": \"(\\\"b\\\") \\\\\"}", TysonTranscoder.transcode(
+                "{\"(\\\"a\\\")\": (\"x\") \"(\\\"b\\\") \\\\\"}"));
+    }
+
+    public void test_unquote_built_in_literals() {
+        assertEquals("[true, 1.5, null, \"NaN\", \"-INF\", \"1\", \"\"]", TysonTranscoder.transcode(
+                "[(\"boolean\") \"true\", (\"double\") \"1.5\", (\"null\") \"null\", (\"double\") \"NaN\", " +
+                        "(\"double\") \"-INF\", (\"my-integer\") \"1\", (\"integer\") \"\"]"));
+    }
+
+    public void test_keep_quoted_values_that_are_not_of_the_type() {
+        assertEquals("[\"Infinity\", \"-infinity\", \"1 2\", \"yes\", \"1.5\", \"1e3\", \"01\", \"-\", \"1.\", \"Null\", \"\\\\u0031\"]",
+                TysonTranscoder.transcode("[(\"double\") \"Infinity\", (\"double\") \"-infinity\", (\"integer\") \"1 2\", " +
+                        "(\"boolean\") \"yes\", (\"integer\") \"1.5\", (\"decimal\") \"1e3\", (\"integer\") \"01\", " +
+                        "(\"integer\") \"-\", (\"double\") \"1.\", (\"null\") \"Null\", (\"integer\") \"\\\\u0031\"]"));
+        assertEquals("[-12, 0.5, -1.5E+3, false]", TysonTranscoder.transcode(
+                "[(\"integer\") \"-12\", (\"decimal\") \"0.5\", (\"double\") \"-1.5E+3\", (\"boolean\") \"false\"]"));
+    }
+
+    public void test_incomplete() {
+        try {
+            TysonTranscoder.transcode("[(\"integer\" 1]");
+            fail();
+        } catch (JsonException e) {
+        }
+        try {
+            TysonTranscoder.transcode("[(\"integer\"");
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
+    public void test_input_stream() throws IOException {
+        String input = "(\"people\") [(\"person\") {\"name\": (\"string\") \"he\\\\\\\"llo\"}, (\"boolean\") \"false\", (\"integer\") 100]";
+        String expected = "[{\"name\": \"he\\\\\\\"llo\"}, false, 100]";
+        for (int bufSize = 1; bufSize < 16; bufSize++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JsonStream stream = new JsonStream(out, 32);
+            TysonTranscoder.transcode(new ByteArrayInputStream(input.getBytes()), stream, bufSize);
+            stream.flush();
+            assertEquals(expected, out.toString());
+        }
+    }
+}
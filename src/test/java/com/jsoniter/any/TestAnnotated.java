@@ -0,0 +1,80 @@
+package com.jsoniter.any;
+
+import com.jsoniter.JsonIterator;
+import com.jsoniter.StreamingCategory;
+import com.jsoniter.ValueType;
+import com.jsoniter.output.JsonStream;
+import junit.framework.TestCase;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+public class TestAnnotated extends TestCase {
+
+    public void test_type_name() {
+        Any any = JsonIterator.deserialize("(\"person\") {\"name\": (\"string\") \"hello\", \"age\": 17}");
+        assertEquals(ValueType.OBJECT, any.valueType());
+        assertEquals("person", any.typeName());
+        assertEquals("string", any.get("name").typeName());
+        assertEquals("hello", any.toString("name"));
+        assertNull(any.get("age").typeName());
+        assertEquals(17, any.toInt("age"));
+    }
+
+    public void test_not_annotated() {
+        Any any = JsonIterator.deserialize("[1, \"hello\"]");
+        assertNull(any.typeName());
+        assertNull(any.get(0).typeName());
+    }
+
+    public void test_atomic_values() {
+        Any any = JsonIterator.deserialize("[(\"integer\") 1, (\"double\")1.5, (\"flag\") true, " +
+                "(\"flag\") false, (\"nothing\") null, (\"my-array\") [], (\"my-name\") \"hello\"]");
+        assertEquals("integer", any.get(0).typeName());
+        assertEquals(1, any.toInt(0));
+        assertEquals("double", any.get(1).typeName());
+        assertEquals(1.5d, any.toDouble(1));
+        assertEquals("flag", any.get(2).typeName());
+        assertEquals(ValueType.BOOLEAN, any.get(2).valueType());
+        assertTrue(any.toBoolean(2));
+        assertFalse(any.toBoolean(3));
+        assertEquals(ValueType.NULL, any.get(4).valueType());
+        assertNull(any.get(4).object());
+        assertEquals("my-array", any.get(5).typeName());
+        assertEquals(0, any.get(5).size());
+        assertEquals("hello", any.toString(6));
+    }
+
+    public void test_round_trip() {
+        String input = "(\"person\") {\"name\": (\"my-name\") \"hello\", \"tags\": (\"tags\") [(\"integer\") 1, true]}";
+        Any any = JsonIterator.deserialize(input);
+        assertEquals(input, JsonStream.serialize(any));
+        assertEquals("(\"tags\") [(\"integer\") 1, true]", JsonStream.serialize(any.get("tags")).trim());
+    }
+
+    public void test_round_trip_after_modification() {
+        Any any = JsonIterator.deserialize("(\"person\") {\"name\": (\"my-name\") \"hello\"}");
+        any.asMap().put("age", Any.wrap(17));
+        String output = JsonStream.serialize(any);
+        assertTrue(output, output.startsWith("(\"person\"){"));
+        assertTrue(output, output.contains("\"name\": (\"my-name\") \"hello\""));
+        assertTrue(output, output.contains("\"age\":17"));
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_streaming() throws IOException {
+        byte[] input = "(\"people\") [(\"person\") {\"name\": (\"my-name\") \"hello\"}, (\"flag\") true, (\"integer\") 100]".getBytes();
+        JsonIterator iter = JsonIterator.parse(new ByteArrayInputStream(input), 2);
+        Any any = iter.readAny();
+        assertEquals("people", any.typeName());
+        assertEquals(3, any.size());
+        assertEquals("(\"person\") {\"name\": (\"my-name\") \"hello\"}", JsonStream.serialize(any.get(0)));
+        assertEquals("person", any.get(0).typeName());
+        assertEquals("my-name", any.get(0).get("name").typeName());
+        assertEquals("hello", any.toString(0, "name"));
+        assertEquals("flag", any.get(1).typeName());
+        assertTrue(any.toBoolean(1));
+        assertEquals(100, any.toInt(2));
+    }
+}
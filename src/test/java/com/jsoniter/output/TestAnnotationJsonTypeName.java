@@ -0,0 +1,75 @@
+package com.jsoniter.output;
+
+import com.jsoniter.JsonIterator;
+import com.jsoniter.annotation.JsonTypeName;
+import com.jsoniter.spi.Config;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class TestAnnotationJsonTypeName extends TestCase {
+
+    @JsonTypeName("person")
+    public static class TestObject1 {
+        public String name;
+        public TestObject2 address;
+    }
+
+    @JsonTypeName("address")
+    public static class TestObject2 {
+        public String city;
+    }
+
+    @JsonTypeName("nothing")
+    public static class TestObject3 {
+    }
+
+    public void test_type_name() {
+        TestObject1 obj = new TestObject1();
+        obj.name = "hello";
+        obj.address = new TestObject2();
+        obj.address.city = "zurich";
+        String expected = "(\"person\") {\"name\":\"hello\",\"address\":(\"address\") {\"city\":\"zurich\"}}";
+        assertEquals(expected, JsonStream.serialize(obj));
+        Config cfg = new Config.Builder()
+                .encodingMode(EncodingMode.REFLECTION_MODE)
+                .build();
+        assertEquals(expected, JsonStream.serialize(cfg, obj));
+        assertEquals("person", JsonIterator.deserialize(expected).typeName());
+    }
+
+    public void test_empty_object() {
+        assertEquals("(\"nothing\") {}", JsonStream.serialize(new TestObject3()));
+    }
+
+    public void test_indention() {
+        TestObject2 obj = new TestObject2();
+        obj.city = "zurich";
+        Config cfg = new Config.Builder()
+                .encodingMode(EncodingMode.DYNAMIC_MODE)
+                .indentionStep(2)
+                .build();
+        assertEquals("(\"address\") {\n" +
+                "  \"city\": \"zurich\"\n" +
+                "}", JsonStream.serialize(cfg, obj));
+        cfg = new Config.Builder()
+                .encodingMode(EncodingMode.REFLECTION_MODE)
+                .indentionStep(2)
+                .build();
+        assertEquals("(\"address\") {\n" +
+                "  \"city\": \"zurich\"\n" +
+                "}", JsonStream.serialize(cfg, obj));
+    }
+
+    public void test_write_type_annotation() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        JsonStream stream = new JsonStream(baos, 4096);
+        stream.writeTypeAnnotation("my-array");
+        stream.writeArrayStart();
+        stream.writeVal(1);
+        stream.writeArrayEnd();
+        stream.close();
+        assertEquals("(\"my-array\") [1]", baos.toString());
+    }
+}
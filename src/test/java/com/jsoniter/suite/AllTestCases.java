@@ -18,6 +18,7 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
         com.jsoniter.TestAnnotationJsonIgnore.class,
         com.jsoniter.output.TestAnnotationJsonIgnore.class,
+        com.jsoniter.output.TestAnnotationJsonTypeName.class,
         com.jsoniter.TestAnnotationJsonProperty.class,
         com.jsoniter.output.TestAnnotationJsonProperty.class,
         TestAnnotationJsonWrapper.class,
@@ -57,6 +58,24 @@ import org.junit.runners.Suite;
         TestList.class,
         TestAnnotationJsonObject.class,
         TestLong.class,
-        TestOmitValue.class})
+        TestOmitValue.class,
+        TestTypeNameRegistry.class,
+        TestTypeAnnotation.class,
+        TestSchemaRegistry.class,
+        TestTypeDispatch.class,
+        TestTysonTranscoder.class,
+        TestTysonAnnotator.class,
+        TestStructuralIndex.class,
+        TestIterImplScan.class,
+        TestProjection.class,
+        TestParallelReadArray.class,
+        TestParallelReadLines.class,
+        TestMappedFile.class,
+        TestByteBufferInput.class,
+        TestSegmentedInput.class,
+        TestPerIteratorStreaming.class,
+        TestJsonFeeder.class,
+        TestSpilledAny.class,
+        com.jsoniter.any.TestAnnotated.class})
 public abstract class AllTestCases {
 }